@@ -0,0 +1,108 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.benchmark;
+
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.module.audio.SoundSource;
+import be.yildizgames.module.audio.mixer.MixerAudioEngine;
+import be.yildizgames.module.audio.mixer.MixerAudioEngineProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mixing one block with a number of playing voices, no audio device is used.
+ * The per voice cost is the score divided by the number of voices.
+ * The vector kernel is enabled, run with -jvmArgsAppend -Dbe.yildizgames.audio.vector=false to measure the scalar loops.
+ *
+ * @author Grégory Van den Borre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class MixBenchmark {
+
+    /**
+     * Number of playing voices, all mixed for real.
+     */
+    @Param({"1", "64", "1024"})
+    public int voices;
+
+    /**
+     * True to spread mono voices in space, false to mix stereo voices without spatialization.
+     */
+    @Param({"false", "true"})
+    public boolean positioned;
+
+    private Path folder;
+
+    private MixerAudioEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup(final Blackhole blackhole) throws IOException {
+        this.folder = WaveFiles.folder(1, 48000, this.positioned ? 1 : 2);
+        this.engine = new MixerAudioEngineProvider().getAudioEngine()
+                .setMaxVoices(this.voices)
+                .setOutput((buffer, frames) -> blackhole.consume(buffer));
+        this.engine.addResourcePath(ResourcePath.directory("benchmark", this.folder.toString()));
+        for (int i = 0; i < this.voices; i++) {
+            SoundSource source = this.engine.createSound("0.wav").loop();
+            if (this.positioned) {
+                source.setPosition(i % 32, 0, i / 32f);
+            }
+            source.play();
+        }
+        this.engine.update();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.engine.close();
+        WaveFiles.delete(this.folder);
+    }
+
+    @Benchmark
+    public void mixBlock() {
+        this.engine.update();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.benchmark;
+
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.module.audio.mixer.MixerAudioEngine;
+import be.yildizgames.module.audio.mixer.MixerAudioEngineProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a fire and forget sound: from the one shot pool, or with a source built and deleted for every sound.
+ * Run with -prof gc to compare the allocation rates, the pooled one shot does not allocate.
+ *
+ * @author Grégory Van den Borre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OneShotBenchmark {
+
+    private Path folder;
+
+    private MixerAudioEngine engine;
+
+    private float x;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.folder = WaveFiles.folder(1, 4800, 1);
+        this.engine = new MixerAudioEngineProvider().getAudioEngine();
+        this.engine.addResourcePath(ResourcePath.directory("benchmark", this.folder.toString()));
+        this.engine.playOneShot("0.wav", 0, 0, 0, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.engine.close();
+        WaveFiles.delete(this.folder);
+    }
+
+    @Benchmark
+    public void pooled() {
+        this.x += 0.1f;
+        this.engine.playOneShot("0.wav", this.x, 0, 0, 1);
+    }
+
+    @Benchmark
+    public void createAndDelete() {
+        this.x += 0.1f;
+        this.engine.createSound("0.wav").setGain(1).setPosition(this.x, 0, 0).play().delete();
+    }
+}
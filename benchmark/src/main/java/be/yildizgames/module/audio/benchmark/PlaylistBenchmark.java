@@ -0,0 +1,110 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.benchmark;
+
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.module.audio.Music;
+import be.yildizgames.module.audio.Playlist;
+import be.yildizgames.module.audio.mixer.MixerAudioEngine;
+import be.yildizgames.module.audio.mixer.MixerAudioEngineProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of switching to the next music of a playlist, and of retrieving a playlist from its name.
+ *
+ * @author Grégory Van den Borre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaylistBenchmark {
+
+    /**
+     * Number of registered playlists.
+     */
+    private static final int PLAYLISTS = 1000;
+
+    private Path folder;
+
+    private MixerAudioEngine engine;
+
+    private Playlist playlist;
+
+    private String[] names;
+
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.folder = WaveFiles.folder(2, 48000, 2);
+        this.engine = new MixerAudioEngineProvider().getAudioEngine();
+        this.engine.addResourcePath(ResourcePath.directory("benchmark", this.folder.toString()));
+        this.playlist = this.engine.createPlaylist()
+                .addMusic(Music.fromFile("0.wav"))
+                .addMusic(Music.fromFile("1.wav"));
+        this.names = new String[PLAYLISTS];
+        for (int i = 0; i < PLAYLISTS; i++) {
+            this.names[i] = "benchmark-playlist-" + i;
+            this.engine.createPlaylist(this.names[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.playlist.stop();
+        this.engine.close();
+        WaveFiles.delete(this.folder);
+    }
+
+    @Benchmark
+    public void playNext() {
+        this.playlist.playNext();
+        this.engine.update();
+    }
+
+    @Benchmark
+    public Playlist get() {
+        this.lookup = (this.lookup + 1) % PLAYLISTS;
+        return this.engine.getPlaylist(this.names[this.lookup]);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Write the wave files used by the benchmarks, so they do not depend on any asset.
+ *
+ * @author Grégory Van den Borre
+ */
+final class WaveFiles {
+
+    private WaveFiles() {
+        super();
+    }
+
+    /**
+     * Write a 16 bits wave file containing a sine.
+     *
+     * @param file       File to write.
+     * @param frames     Number of frames.
+     * @param sampleRate Frames per second.
+     * @param channels   Number of channels, only mono sources are spatialized by the mixer.
+     * @return The written file.
+     */
+    static Path sine(Path file, int frames, int sampleRate, int channels) throws IOException {
+        int frameSize = channels * 2;
+        ByteBuffer b = ByteBuffer.allocate(44 + frames * frameSize).order(ByteOrder.LITTLE_ENDIAN);
+        b.put("RIFF".getBytes()).putInt(36 + frames * frameSize).put("WAVE".getBytes());
+        b.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * frameSize).putShort((short) frameSize).putShort((short) 16);
+        b.put("data".getBytes()).putInt(frames * frameSize);
+        for (int i = 0; i < frames; i++) {
+            short value = (short) (Math.sin(i * 2 * Math.PI * 440 / sampleRate) * 16384);
+            for (int c = 0; c < channels; c++) {
+                b.putShort(value);
+            }
+        }
+        return Files.write(file, b.array());
+    }
+
+    /**
+     * Create a temporary folder containing wave files named 0.wav, 1.wav...
+     *
+     * @param count    Number of files to write.
+     * @param frames   Number of frames of every file.
+     * @param channels Number of channels of every file, 1 for the positioned sources.
+     * @return The folder, to delete once done.
+     */
+    static Path folder(int count, int frames, int channels) throws IOException {
+        Path folder = Files.createTempDirectory("audio-benchmark");
+        for (int i = 0; i < count; i++) {
+            sine(folder.resolve(i + ".wav"), frames, 48000, channels);
+        }
+        return folder;
+    }
+
+    /**
+     * Delete a folder created by folder(int, int, int) and its files.
+     *
+     * @param folder Folder to delete.
+     */
+    static void delete(Path folder) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
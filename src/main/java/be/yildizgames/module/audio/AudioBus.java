@@ -0,0 +1,197 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import java.util.Objects;
+
+/**
+ * Named mix group, the buses form a tree under the engine master bus.
+ * The gain, mute and pause of a bus apply to all the sources played on it and on its children,
+ * so a settings volume change is a single call, whatever the number of playing sources.
+ * The state can be changed from any thread, it is used from the next mixed block.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AudioBus {
+
+    /**
+     * Name of the root bus, every other bus is one of its descendants.
+     */
+    public static final String MASTER = "master";
+
+    /**
+     * Name of the default bus for the musics, child of the master bus.
+     */
+    public static final String MUSIC = "music";
+
+    /**
+     * Name of the default bus for the sound effects, child of the master bus.
+     */
+    public static final String SFX = "sfx";
+
+    /**
+     * Name of the default bus for the dialogs, child of the master bus.
+     */
+    public static final String VOICE = "voice";
+
+    /**
+     * Bus unique name in its engine.
+     */
+    private final String name;
+
+    /**
+     * Bus this one is mixed into, null for the master bus.
+     */
+    private final AudioBus parent;
+
+    private volatile float gain = 1f;
+
+    private volatile boolean muted;
+
+    private volatile boolean paused;
+
+    /**
+     * Full constructor, the buses are created by their engine.
+     *
+     * @param name   Bus unique name, cannot be null.
+     * @param parent Bus this one is mixed into, null for a root bus.
+     */
+    AudioBus(final String name, final AudioBus parent) {
+        super();
+        Objects.requireNonNull(name);
+        this.name = name;
+        this.parent = parent;
+    }
+
+    /**
+     * @return The bus unique name, never null.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return The bus this one is mixed into, null for the master bus.
+     */
+    public AudioBus getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Set the gain applied to the bus submix, on top of the source gains and the parent bus gain.
+     *
+     * @param gain Gain to set, 0 for silence, 1 for unchanged, must not be negative.
+     *
+     * @return This object for chaining, never null.
+     */
+    public AudioBus setGain(final float gain) {
+        if (!(gain >= 0) || Float.isInfinite(gain)) {
+            throw new IllegalArgumentException("Bus gain cannot be negative: " + gain);
+        }
+        this.gain = gain;
+        return this;
+    }
+
+    /**
+     * @return The gain of this bus only, without its parents.
+     */
+    public float getGain() {
+        return this.gain;
+    }
+
+    /**
+     * Silence the bus and its children, their sources keep playing silently.
+     *
+     * @return This object for chaining, never null.
+     */
+    public AudioBus mute() {
+        this.muted = true;
+        return this;
+    }
+
+    /**
+     * Hear the bus again, if its parents are not muted.
+     *
+     * @return This object for chaining, never null.
+     */
+    public AudioBus unmute() {
+        this.muted = false;
+        return this;
+    }
+
+    /**
+     * @return true if this bus is muted, its parents are not checked.
+     */
+    public boolean isMuted() {
+        return this.muted;
+    }
+
+    /**
+     * Freeze the sources of the bus and its children, they keep their position and continue from it once resumed.
+     *
+     * @return This object for chaining, never null.
+     */
+    public AudioBus pause() {
+        this.paused = true;
+        return this;
+    }
+
+    /**
+     * Continue the sources of the bus, if its parents are not paused.
+     *
+     * @return This object for chaining, never null.
+     */
+    public AudioBus resume() {
+        this.paused = false;
+        return this;
+    }
+
+    /**
+     * @return true if this bus is paused, its parents are not checked.
+     */
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * @return The gain heard for this bus: its gain multiplied by its parents gains, 0 if it or one of its parents is muted.
+     */
+    public float getEffectiveGain() {
+        float result = this.muted ? 0f : this.gain;
+        return this.parent == null ? result : result * this.parent.getEffectiveGain();
+    }
+
+    /**
+     * @return The root of the tree this bus belongs to.
+     */
+    AudioBus getRoot() {
+        return this.parent == null ? this : this.parent.getRoot();
+    }
+
+    @Override
+    public String toString() {
+        return this.parent == null ? this.name : this.parent + "/" + this.name;
+    }
+}
@@ -25,6 +25,9 @@ package be.yildizgames.module.audio;
 
 import be.yildizgames.common.file.ResourcePath;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Audio engine, can load audio file, create music playlist,...
  *
@@ -48,6 +51,45 @@ public interface AudioEngine extends SoundBuilder {
      */
     Playlist createPlaylist();
 
+    /**
+     * Retrieve a playlist created by this engine from its name, until the playlist is closed.
+     *
+     * @param name Playlist unique name, cannot be null.
+     *
+     * @return The playlist, never null.
+     *
+     * @throws IllegalArgumentException If no playlist has this name.
+     */
+    Playlist getPlaylist(String name);
+
+    /**
+     * @return The root of the bus tree, all the other buses are mixed into it, never null.
+     */
+    AudioBus getMasterBus();
+
+    /**
+     * Retrieve a bus from its name, the master, music, sfx and voice buses always exist.
+     *
+     * @param name Bus unique name, cannot be null.
+     *
+     * @return The bus, never null.
+     *
+     * @throws IllegalArgumentException If no bus has this name.
+     */
+    AudioBus getBus(String name);
+
+    /**
+     * Create a new bus, mixed into a parent bus of this engine.
+     *
+     * @param name   Bus unique name, cannot be null.
+     * @param parent Bus the new one is mixed into, cannot be null.
+     *
+     * @return The created bus, never null.
+     *
+     * @throws IllegalArgumentException If the name is already used, or if the parent is not a bus of this engine.
+     */
+    AudioBus createBus(String name, AudioBus parent);
+
     /**
      * Add a path to load resources.
      *
@@ -56,4 +98,71 @@ public interface AudioEngine extends SoundBuilder {
      * @return This object for chaining, never null.
      */
     AudioEngine addResourcePath(ResourcePath path);
+
+    /**
+     * Build a SoundSource from a file without blocking the calling thread.
+     * Implementations without asynchronous support build it on the calling thread.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return A future completed with the built SoundSource, or exceptionally with a SoundCreationException.
+     */
+    default CompletableFuture<SoundSource> createSoundAsync(String file) {
+        try {
+            return CompletableFuture.completedFuture(this.createSound(file));
+        } catch (SoundCreationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Play a short positioned sound and forget it, the source is released once the sound ends.
+     * Implementations with a voice pool play it without allocating, others build a new source for every call.
+     *
+     * @param file File to play, cannot be null.
+     * @param x    Position x.
+     * @param y    Position y.
+     * @param z    Position z.
+     * @param gain Gain of the sound.
+     *
+     * @throws SoundCreationException If the file cannot be loaded.
+     */
+    default void playOneShot(String file, float x, float y, float z, float gain) {
+        SoundSource source = this.createSound(file);
+        source.setGain(gain).setPosition(x, y, z).addEndPlayListener(source::delete).play();
+    }
+
+    /**
+     * Provide a snapshot of the engine activity counters, it can be called from any thread and never locks.
+     * Implementations without counters return an empty snapshot.
+     *
+     * @return The snapshot, never null.
+     */
+    default AudioEngineStats getStats() {
+        return AudioEngineStats.EMPTY;
+    }
+
+    /**
+     * Load many audio files in parallel, so they can be played later without loading hitch.
+     * Implementations without cache have nothing to preload, the returned preload is then already complete.
+     *
+     * @param files Files to load, cannot be null.
+     *
+     * @return The preload progress, never null.
+     */
+    default AudioPreload preload(Collection<AudioFile> files) {
+        return new AudioPreload(0);
+    }
+
+    /**
+     * Load all the musics of a playlist in parallel, they are loaded from their name, as createSound(String) does.
+     * Implementations without cache have nothing to preload, the returned preload is then already complete.
+     *
+     * @param playlist Playlist to preload, cannot be null.
+     *
+     * @return The preload progress, never null.
+     */
+    default AudioPreload preload(Playlist playlist) {
+        return new AudioPreload(0);
+    }
 }
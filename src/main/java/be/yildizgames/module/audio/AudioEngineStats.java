@@ -0,0 +1,202 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the audio engine activity counters, meant to be graphed by a monitoring tool.
+ * The counters are cumulated since the engine creation, the voice counts and resident bytes are the current values.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AudioEngineStats {
+
+    /**
+     * Number of buckets of the mix time histogram.
+     */
+    public static final int HISTOGRAM_BUCKETS = 16;
+
+    /**
+     * Snapshot of an engine without any activity.
+     */
+    public static final AudioEngineStats EMPTY = new AudioEngineStats(0, 0, new long[HISTOGRAM_BUCKETS], 0, 0, 0, 0, 0, 0, 0);
+
+    private final int realVoices;
+
+    private final int virtualVoices;
+
+    /**
+     * Number of mixes per duration bucket.
+     */
+    private final long[] mixHistogram;
+
+    private final long mixNanos;
+
+    private final long underruns;
+
+    private final long decodeCount;
+
+    private final long decodeNanos;
+
+    private final long cacheHits;
+
+    private final long cacheMisses;
+
+    private final long residentBytes;
+
+    /**
+     * Full constructor.
+     *
+     * @param realVoices    Number of voices really mixed.
+     * @param virtualVoices Number of playing voices not mixed.
+     * @param mixHistogram  Number of mixes per duration bucket, HISTOGRAM_BUCKETS values, copied.
+     * @param mixNanos      Total mix time, in nanoseconds.
+     * @param underruns     Number of times some audio data was not ready in time.
+     * @param decodeCount   Number of decoded files.
+     * @param decodeNanos   Total decoding time, in nanoseconds.
+     * @param cacheHits     Number of sounds found in the cache.
+     * @param cacheMisses   Number of sounds not found in the cache.
+     * @param residentBytes Memory used by the decoded samples, in bytes.
+     */
+    public AudioEngineStats(int realVoices, int virtualVoices, long[] mixHistogram, long mixNanos, long underruns,
+                            long decodeCount, long decodeNanos, long cacheHits, long cacheMisses, long residentBytes) {
+        super();
+        Objects.requireNonNull(mixHistogram);
+        if (mixHistogram.length != HISTOGRAM_BUCKETS) {
+            throw new IllegalArgumentException("Mix histogram must have " + HISTOGRAM_BUCKETS + " buckets.");
+        }
+        this.realVoices = realVoices;
+        this.virtualVoices = virtualVoices;
+        this.mixHistogram = mixHistogram.clone();
+        this.mixNanos = mixNanos;
+        this.underruns = underruns;
+        this.decodeCount = decodeCount;
+        this.decodeNanos = decodeNanos;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.residentBytes = residentBytes;
+    }
+
+    /**
+     * Provide the bucket of the mix time histogram for a duration.
+     * The bucket 0 is for durations under 1 microsecond, the bucket n for durations from 2^(n-1) to 2^n microseconds,
+     * the last bucket contains all the longer durations.
+     *
+     * @param nanos Duration, in nanoseconds.
+     *
+     * @return The bucket index.
+     */
+    public static int bucket(final long nanos) {
+        return Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000));
+    }
+
+    /**
+     * @param bucket Histogram bucket index.
+     *
+     * @return The upper bound of the durations in the bucket, in microseconds, Long.MAX_VALUE for the last bucket.
+     */
+    public static long bucketBound(final int bucket) {
+        return bucket >= HISTOGRAM_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public int getRealVoices() {
+        return this.realVoices;
+    }
+
+    public int getVirtualVoices() {
+        return this.virtualVoices;
+    }
+
+    /**
+     * @return The number of mixes per duration bucket, a copy.
+     */
+    public long[] getMixHistogram() {
+        return this.mixHistogram.clone();
+    }
+
+    /**
+     * @return The number of mixed blocks.
+     */
+    public long getMixCount() {
+        long count = 0;
+        for (long bucket : this.mixHistogram) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    public long getMixNanos() {
+        return this.mixNanos;
+    }
+
+    /**
+     * @return The average time to mix a block, in nanoseconds, 0 if nothing was mixed.
+     */
+    public long getAverageMixNanos() {
+        long count = this.getMixCount();
+        return count == 0 ? 0 : this.mixNanos / count;
+    }
+
+    public long getUnderruns() {
+        return this.underruns;
+    }
+
+    public long getDecodeCount() {
+        return this.decodeCount;
+    }
+
+    public long getDecodeNanos() {
+        return this.decodeNanos;
+    }
+
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return this.cacheMisses;
+    }
+
+    /**
+     * @return The ratio of sounds found in the cache, from 0 to 1, 0 if no sound was requested.
+     */
+    public float getCacheHitRatio() {
+        long total = this.cacheHits + this.cacheMisses;
+        return total == 0 ? 0f : this.cacheHits / (float) total;
+    }
+
+    public long getResidentBytes() {
+        return this.residentBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioEngineStats{voices=" + this.realVoices + "/" + this.virtualVoices
+                + ", mix=" + this.getAverageMixNanos() + "ns, underruns=" + this.underruns
+                + ", decodes=" + this.decodeCount + ", cacheHitRatio=" + this.getCacheHitRatio()
+                + ", residentBytes=" + this.residentBytes + "}";
+    }
+}
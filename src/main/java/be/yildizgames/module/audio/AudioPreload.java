@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a bulk preload of audio files, meant to be polled by a loading screen.
+ * The completion is done once every file was processed, exceptionally with a SoundCreationException if some files failed.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class AudioPreload {
+
+    /**
+     * Number of files to preload.
+     */
+    private final int total;
+
+    /**
+     * Number of files processed, successfully or not.
+     */
+    private final AtomicInteger processed = new AtomicInteger();
+
+    /**
+     * Failure of the files which could not be preloaded.
+     */
+    private final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Completed once every file was processed.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * Create a new preload.
+     *
+     * @param total Number of files to preload, if 0 the preload is already complete.
+     */
+    AudioPreload(final int total) {
+        super();
+        this.total = total;
+        if (total == 0) {
+            this.completion.complete(null);
+        }
+    }
+
+    /**
+     * Notify a file was preloaded.
+     */
+    void succeeded() {
+        this.processed();
+    }
+
+    /**
+     * Notify a file could not be preloaded.
+     *
+     * @param failure Reason of the failure.
+     */
+    void failed(final Throwable failure) {
+        this.failures.add(failure);
+        this.processed();
+    }
+
+    /**
+     * @return True if the preload is complete or was cancelled, the remaining files are then not loaded anymore.
+     */
+    boolean isDone() {
+        return this.completion.isDone();
+    }
+
+    /**
+     * @return The number of files to preload.
+     */
+    public int getTotal() {
+        return this.total;
+    }
+
+    /**
+     * @return The number of files processed, successfully or not.
+     */
+    public int getProcessed() {
+        return this.processed.get();
+    }
+
+    /**
+     * @return The number of files which could not be preloaded.
+     */
+    public int getFailed() {
+        return this.failures.size();
+    }
+
+    /**
+     * @return The processed ratio, from 0 to 1.
+     */
+    public float getProgress() {
+        return this.total == 0 ? 1f : this.processed.get() / (float) this.total;
+    }
+
+    /**
+     * Provide the future completed once every file was processed.
+     * It is completed exceptionally with a SoundCreationException if some files failed, their failures are suppressed in it.
+     * Cancelling it skips the files not loaded yet.
+     *
+     * @return The completion future, never null.
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return this.completion;
+    }
+
+    private void processed() {
+        if (this.processed.incrementAndGet() != this.total) {
+            return;
+        }
+        if (this.failures.isEmpty()) {
+            this.completion.complete(null);
+        } else {
+            SoundCreationException e = new SoundCreationException(this.failures.size() + " audio files could not be preloaded.");
+            this.failures.forEach(e::addSuppressed);
+            this.completion.completeExceptionally(e);
+        }
+    }
+}
@@ -28,9 +28,22 @@ import be.yildizgames.common.gameobject.Movable;
 import be.yildizgames.common.geometry.Point3D;
 import be.yildizgames.common.util.StringUtil;
 import be.yildizgames.module.audio.dummy.DummyAudioEngineProvider;
+import be.yildizgames.module.audio.mixer.MixerAudioEngineProvider;
+import be.yildizgames.module.audio.mixer.OfflineAudioEngineProvider;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 /**
  * Audio Engine behavior.
@@ -39,6 +52,11 @@ import java.util.ServiceLoader;
  */
 public abstract class BaseAudioEngine implements AutoCloseable, AudioEngine {
 
+    /**
+     * Default maximum number of sounds loaded at the same time.
+     */
+    private static final int DEFAULT_LOADING_CONCURRENCY = Math.max(2, Runtime.getRuntime().availableProcessors());
+
     /**
      * Logger.
      */
@@ -54,21 +72,86 @@ public abstract class BaseAudioEngine implements AutoCloseable, AudioEngine {
      */
     protected Movable listener = new DefaultListener();
 
+    /**
+     * Collect the end of play events, to deliver them in batch.
+     */
+    private final EndPlayDispatcher endPlayDispatcher = new EndPlayDispatcher();
+
+    /**
+     * Load the sounds asynchronously, one virtual thread per sound.
+     */
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Limit the number of sounds loaded at the same time.
+     */
+    private volatile Semaphore loading = new Semaphore(DEFAULT_LOADING_CONCURRENCY, true);
+
+    /**
+     * Root of the bus tree.
+     */
+    private final AudioBus masterBus = new AudioBus(AudioBus.MASTER, null);
+
+    /**
+     * Playlists created by this engine and not closed yet, by name.
+     */
+    private final Map<String, Playlist> playlists = new ConcurrentHashMap<>();
+
+    /**
+     * All the buses of this engine, by name.
+     */
+    private final Map<String, AudioBus> buses = new ConcurrentHashMap<>();
+
     /**
      * Constructor.
      */
     protected BaseAudioEngine() {
         super();
+        this.buses.put(AudioBus.MASTER, this.masterBus);
+        this.createBus(AudioBus.MUSIC, this.masterBus);
+        this.createBus(AudioBus.SFX, this.masterBus);
+        this.createBus(AudioBus.VOICE, this.masterBus);
     }
 
     /**
      * Create a new instance of an audio engine implementation.
+     * Implementations provided by other modules are preferred over the built in software mixer,
+     * the offline engine is never chosen, it must be asked with getEngine(Class).
      *
      * @return The created instance, never null.
      */
     public static BaseAudioEngine getEngine() {
-        ServiceLoader<AudioEngineProvider> provider = ServiceLoader.load(AudioEngineProvider.class);
-        return provider.findFirst().orElseGet(DummyAudioEngineProvider::new).getAudioEngine();
+        List<ServiceLoader.Provider<AudioEngineProvider>> providers = ServiceLoader.load(AudioEngineProvider.class)
+                .stream()
+                .filter(p -> p.type() != OfflineAudioEngineProvider.class)
+                .toList();
+        return providers.stream()
+                .filter(p -> p.type() != MixerAudioEngineProvider.class)
+                .findFirst()
+                .or(() -> providers.stream().findFirst())
+                .map(ServiceLoader.Provider::get)
+                .orElseGet(DummyAudioEngineProvider::new)
+                .getAudioEngine();
+    }
+
+    /**
+     * Create a new instance of an audio engine implementation from a given provider.
+     *
+     * @param provider Type of the provider to use, cannot be null.
+     *
+     * @return The created instance, never null.
+     *
+     * @throws IllegalArgumentException If no such provider is registered.
+     */
+    public static BaseAudioEngine getEngine(final Class<? extends AudioEngineProvider> provider) {
+        Objects.requireNonNull(provider);
+        return ServiceLoader.load(AudioEngineProvider.class)
+                .stream()
+                .filter(p -> p.type() == provider)
+                .findFirst()
+                .map(ServiceLoader.Provider::get)
+                .orElseThrow(() -> new IllegalArgumentException("Audio engine provider not registered: " + provider.getName()))
+                .getAudioEngine();
     }
 
     /**
@@ -84,6 +167,211 @@ public abstract class BaseAudioEngine implements AutoCloseable, AudioEngine {
         return this;
     }
 
+    @Override
+    public final AudioBus getMasterBus() {
+        return this.masterBus;
+    }
+
+    @Override
+    public final AudioBus getBus(final String name) {
+        Objects.requireNonNull(name);
+        AudioBus bus = this.buses.get(name);
+        if (bus == null) {
+            throw new IllegalArgumentException("No audio bus named " + name);
+        }
+        return bus;
+    }
+
+    @Override
+    public final AudioBus createBus(final String name, final AudioBus parent) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(parent);
+        if (parent.getRoot() != this.masterBus) {
+            throw new IllegalArgumentException("Parent bus not from this engine: " + parent);
+        }
+        AudioBus bus = new AudioBus(name, parent);
+        if (this.buses.putIfAbsent(name, bus) != null) {
+            throw new IllegalArgumentException("Audio bus already existing: " + name);
+        }
+        return bus;
+    }
+
+    /**
+     * Choose where the end of play listeners are called.
+     * By default, they are called in batch during update, by the thread updating the engine.
+     *
+     * @param executor Executor calling the listeners, null to call them during update.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final BaseAudioEngine setEndPlayExecutor(final Executor executor) {
+        this.endPlayDispatcher.setExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Build a SoundSource from a file on a virtual thread, the file reading and decoding do not block the calling thread.
+     * The number of sounds loaded at the same time is limited, the others wait for their turn in request order.
+     * Cancelling the future interrupts the loading, a sound built after the cancellation is deleted.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return A future completed with the built SoundSource, or exceptionally with a SoundCreationException.
+     */
+    @Override
+    public final CompletableFuture<SoundSource> createSoundAsync(final String file) {
+        Objects.requireNonNull(file);
+        CompletableFuture<SoundSource> result = new CompletableFuture<>();
+        Semaphore permits = this.loading;
+        Future<?> task = this.loader.submit(() -> this.load(file, result, permits));
+        result.whenComplete((s, e) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Set the maximum number of sounds loaded at the same time by createSoundAsync, the loadings already requested keep the previous limit.
+     *
+     * @param concurrency Maximum number of loadings, must be at least 1.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final BaseAudioEngine setLoadingConcurrency(final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Loading concurrency must be at least 1.");
+        }
+        this.loading = new Semaphore(concurrency, true);
+        return this;
+    }
+
+    /**
+     * Load many audio files in parallel, each on a virtual thread, the number of files loaded at the same time
+     * is limited like for createSoundAsync.
+     *
+     * @param files Files to load, cannot be null.
+     *
+     * @return The preload progress, never null.
+     */
+    @Override
+    public final AudioPreload preload(final Collection<AudioFile> files) {
+        return this.preload(files, this::preloadImpl);
+    }
+
+    /**
+     * Load all the musics of a playlist in parallel, from their name as createSound(String) does,
+     * the number of files loaded at the same time is limited like for createSoundAsync.
+     *
+     * @param playlist Playlist to preload, cannot be null.
+     *
+     * @return The preload progress, never null.
+     */
+    @Override
+    public final AudioPreload preload(final Playlist playlist) {
+        return this.preload(playlist.getMusics().stream().map(Music::getFile).toList(), this::preloadImpl);
+    }
+
+    private <T> AudioPreload preload(final Collection<T> files, final Consumer<T> loading) {
+        List<T> toLoad = List.copyOf(files);
+        AudioPreload result = new AudioPreload(toLoad.size());
+        Semaphore permits = this.loading;
+        for (T file : toLoad) {
+            this.loader.execute(() -> this.preload(file, loading, result, permits));
+        }
+        return result;
+    }
+
+    /**
+     * Provide the executor preparing the next musics of the playlists of this engine.
+     * By default they are prepared on virtual threads, out of the playing and game threads.
+     *
+     * @return The executor, never null.
+     */
+    protected Executor getPrefetchExecutor() {
+        return this.loader;
+    }
+
+    /**
+     * Load a file so it can be played later without hitch, called concurrently from different threads.
+     * Implementations without cache have nothing to do.
+     *
+     * @param file File to load, never null.
+     *
+     * @throws SoundCreationException If the file cannot be loaded.
+     */
+    protected void preloadImpl(final AudioFile file) {
+        //Nothing to preload by default.
+    }
+
+    /**
+     * Load a file from its name, as createSound(String) does, so it can be played later without hitch,
+     * called concurrently from different threads.
+     * Implementations without cache have nothing to do.
+     *
+     * @param file File to load, never null.
+     *
+     * @throws SoundCreationException If the file cannot be loaded.
+     */
+    protected void preloadImpl(final String file) {
+        //Nothing to preload by default.
+    }
+
+    private <T> void preload(final T file, final Consumer<T> loading, final AudioPreload result, final Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            result.failed(e);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (!result.isDone()) {
+                loading.accept(file);
+            }
+            result.succeeded();
+        } catch (RuntimeException e) {
+            result.failed(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void load(final String file, final CompletableFuture<SoundSource> result, final Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (result.isDone()) {
+                return;
+            }
+            SoundSource source = this.createSound(file);
+            if (!result.complete(source)) {
+                source.delete();
+            }
+        } catch (SoundCreationException e) {
+            result.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(new SoundCreationException(e));
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Implementations publish the end of play events in this dispatcher, and call its dispatch method during update.
+     *
+     * @return The end of play events dispatcher, never null.
+     */
+    protected final EndPlayDispatcher getEndPlayDispatcher() {
+        return this.endPlayDispatcher;
+    }
+
     /**
      * Test the audio positioning by playing audio with different positions.
      */
@@ -99,9 +387,42 @@ public abstract class BaseAudioEngine implements AutoCloseable, AudioEngine {
         source.play();
     }
 
+    /**
+     * Create a new playlist with a given name, registered in this engine until it is closed.
+     *
+     * @param name Playlist unique name, cannot be null.
+     *
+     * @return The created playlist, never null.
+     *
+     * @throws IllegalArgumentException If a playlist with the same name is registered.
+     */
     @Override
     public final Playlist createPlaylist(final String name) {
-        return new Playlist(name, this);
+        Objects.requireNonNull(name);
+        Playlist playlist = new Playlist(name, this);
+        if (this.playlists.putIfAbsent(name, playlist) != null) {
+            throw new IllegalArgumentException("Playlist already existing: " + name);
+        }
+        return playlist;
+    }
+
+    @Override
+    public final Playlist getPlaylist(final String name) {
+        Objects.requireNonNull(name);
+        Playlist playlist = this.playlists.get(name);
+        if (playlist == null) {
+            throw new IllegalArgumentException("No playlist named " + name);
+        }
+        return playlist;
+    }
+
+    /**
+     * Remove a closed playlist from the registered ones.
+     *
+     * @param playlist Playlist to remove.
+     */
+    final void unregister(final Playlist playlist) {
+        this.playlists.remove(playlist.getName(), playlist);
     }
 
     @Override
@@ -113,6 +434,8 @@ public abstract class BaseAudioEngine implements AutoCloseable, AudioEngine {
     public final void close() {
         this.logger.log(System.Logger.Level.INFO, "Closing audio engine...");
         this.musicPlaying.stop();
+        this.playlists.values().forEach(Playlist::close);
+        this.loader.shutdownNow();
         this.closeImpl();
         this.logger.log(System.Logger.Level.INFO,"Audio engine closed.");
     }
@@ -57,6 +57,26 @@ public final class EmptySoundSource implements SoundSource {
         return this;
     }
 
+    @Override
+    public SoundSource setPosition(float x, float y, float z) {
+        return this;
+    }
+
+    @Override
+    public SoundSource setVelocity(float x, float y, float z) {
+        return this;
+    }
+
+    @Override
+    public SoundSource setPitch(float pitch) {
+        return this;
+    }
+
+    @Override
+    public SoundSource setDirection(float x, float y, float z) {
+        return this;
+    }
+
     @Override
     public SoundSource loop() {
         return this;
@@ -72,6 +92,21 @@ public final class EmptySoundSource implements SoundSource {
         return this;
     }
 
+    @Override
+    public SoundSource fadeTo(float gain, long milliseconds) {
+        return this;
+    }
+
+    @Override
+    public SoundSource chain(SoundSource next) {
+        return this;
+    }
+
+    @Override
+    public SoundSource chain(SoundSource next, long milliseconds) {
+        return this;
+    }
+
     @Override
     public SoundSource delete() {
         return this;
@@ -0,0 +1,153 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collect the end of play events published by the audio backend, and deliver them in batch,
+ * when dispatch is called by the engine update, or on an executor.
+ * Events are stored in the listeners objects themselves, as a lock free stack,
+ * so publishing can be done from the mixing thread without allocating nor waiting.
+ * Events are delivered in the order they were published, a source ending twice before being dispatched is notified twice.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class EndPlayDispatcher {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER = System.getLogger(EndPlayDispatcher.class.toString());
+
+    /**
+     * Last published events, linked by their nextPending field, most recent first.
+     */
+    private final AtomicReference<EndPlayListeners> head = new AtomicReference<>();
+
+    /**
+     * True when a dispatch is submitted to the executor and not started yet.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Task submitted to the executor, reused.
+     */
+    private final Runnable task = this::runScheduled;
+
+    /**
+     * Executor delivering the events, null if delivered by dispatch.
+     */
+    private volatile Executor executor;
+
+    /**
+     * Create a new dispatcher, delivering the events when dispatch is called.
+     */
+    public EndPlayDispatcher() {
+        super();
+    }
+
+    /**
+     * Deliver the events on an executor instead of when dispatch is called.
+     *
+     * @param executor Executor to use, null to deliver the events when dispatch is called.
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+        if (executor != null && this.head.get() != null) {
+            this.schedule(executor);
+        }
+    }
+
+    /**
+     * Queue an end of play event, can be called from any thread.
+     *
+     * @param listeners Listeners of the source which reached its end, cannot be null.
+     */
+    public void publish(final EndPlayListeners listeners) {
+        Objects.requireNonNull(listeners);
+        if (listeners.pending.getAndIncrement() == 0) {
+            EndPlayListeners current;
+            do {
+                current = this.head.get();
+                listeners.nextPending = current;
+            } while (!this.head.compareAndSet(current, listeners));
+        }
+        Executor e = this.executor;
+        if (e != null) {
+            this.schedule(e);
+        }
+    }
+
+    /**
+     * Notify the listeners of all queued events, by the calling thread.
+     * Does nothing if the events are delivered on an executor.
+     *
+     * @return The number of notified sources.
+     */
+    public int dispatch() {
+        return this.executor == null ? this.deliver() : 0;
+    }
+
+    private int deliver() {
+        EndPlayListeners list = this.head.getAndSet(null);
+        EndPlayListeners ordered = null;
+        while (list != null) {
+            EndPlayListeners next = list.nextPending;
+            list.nextPending = ordered;
+            ordered = list;
+            list = next;
+        }
+        int delivered = 0;
+        while (ordered != null) {
+            EndPlayListeners current = ordered;
+            ordered = current.nextPending;
+            current.nextPending = null;
+            for (int i = current.pending.getAndSet(0); i > 0; i--) {
+                try {
+                    current.notifyListeners();
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Error in end of play listener:", e);
+                }
+            }
+            delivered++;
+        }
+        return delivered;
+    }
+
+    private void schedule(final Executor e) {
+        if (this.scheduled.compareAndSet(false, true)) {
+            e.execute(this.task);
+        }
+    }
+
+    private void runScheduled() {
+        this.scheduled.set(false);
+        this.deliver();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End of play listeners registered on a sound source, reused for every play of the source.
+ * Registering only allocates when the storage grows, notifying never allocates.
+ * The object itself is the event queued in the end play dispatcher, so publishing an end of play does not allocate.
+ * Listeners can be added from any thread.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class EndPlayListeners {
+
+    /**
+     * Registered listeners, only the first count are relevant.
+     */
+    private EndPlayListener[] listeners = new EndPlayListener[1];
+
+    private int count;
+
+    /**
+     * Number of end of play published and not dispatched yet.
+     */
+    final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Next element in the dispatcher pending stack.
+     */
+    EndPlayListeners nextPending;
+
+    /**
+     * Create an empty set of listeners.
+     */
+    public EndPlayListeners() {
+        super();
+    }
+
+    /**
+     * Register a listener.
+     *
+     * @param listener Listener to notify when the source reaches its end, cannot be null.
+     */
+    public synchronized void add(final EndPlayListener listener) {
+        Objects.requireNonNull(listener);
+        if (this.count == this.listeners.length) {
+            this.listeners = Arrays.copyOf(this.listeners, this.count * 2);
+        }
+        this.listeners[this.count] = listener;
+        this.count++;
+    }
+
+    /**
+     * Remove all listeners, an end of play not dispatched yet will not notify them.
+     */
+    public synchronized void clear() {
+        Arrays.fill(this.listeners, 0, this.count, null);
+        this.count = 0;
+    }
+
+    /**
+     * @return The number of registered listeners.
+     */
+    public synchronized int size() {
+        return this.count;
+    }
+
+    /**
+     * Notify all listeners, outside of the lock so they can register other listeners.
+     */
+    void notifyListeners() {
+        EndPlayListener[] current;
+        int size;
+        synchronized (this) {
+            current = this.listeners;
+            size = this.count;
+        }
+        for (int i = 0; i < size; i++) {
+            EndPlayListener listener = current[i];
+            if (listener != null) {
+                listener.soundFinished();
+            }
+        }
+    }
+}
@@ -25,18 +25,27 @@
 package be.yildizgames.module.audio;
 
 import be.yildizgames.common.util.BaseRegisterable;
-import be.yildizgames.common.util.Registerer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * A container to load and play music files.
+ * While a music is playing, the next one is prepared, in the background unless the engine requires otherwise, and chained to the current one,
+ * so it starts without gap and without loading when the current one ends, or crossfades with it if requested.
+ * The musics are played in order, shuffled, or drawn at random according to their weights,
+ * choosing the next music is constant time and does not allocate.
+ * A playlist created by an engine can be retrieved from it by its name until it is closed.
  *
  * @author Grégory Van den Borre
  */
-public class Playlist extends BaseRegisterable implements EndPlayListener {
+public class Playlist extends BaseRegisterable implements EndPlayListener, AutoCloseable {
 
     /**
      * Logger.
@@ -44,9 +53,9 @@ public class Playlist extends BaseRegisterable implements EndPlayListener {
     private final System.Logger logger = System.getLogger(Playlist.class.toString());
 
     /**
-     * List of all existing play lists.
+     * Prepare the next musics of the playlists without engine, out of the playing and game threads.
      */
-    private static final Registerer<Playlist> REGISTERER = Registerer.newRegisterer();
+    private static final Executor PREFETCH = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
      * List of file to play.
@@ -59,61 +68,149 @@ public class Playlist extends BaseRegisterable implements EndPlayListener {
     private final SoundBuilder builder;
 
     /**
-     * Position in the music list of the current playing music.
+     * Engine where this playlist is registered, null if it is not registered.
      */
+    private final BaseAudioEngine owner;
 
+    /**
+     * Prepare the next musics.
+     */
+    private final Executor prefetcher;
+
+    /**
+     * Weight of every music, for the weighted mode.
+     */
+    private float[] weights = new float[8];
+
+    /**
+     * Position in the music list of the next music to play, -1 if not chosen yet.
+     */
     private int current;
 
+    private PlaylistMode mode = PlaylistMode.SEQUENTIAL;
+
+    /**
+     * Random source for the shuffle and weighted modes, only used while holding the lock.
+     */
+    private Random random = new Random();
+
+    /**
+     * Music indices in the order of the current shuffle cycle.
+     */
+    private int[] order = new int[0];
+
+    /**
+     * Position in the shuffle order of the next music to play.
+     */
+    private int cursor;
+
+    /**
+     * Alias table for the weighted mode: probability to keep the drawn column, and music to use otherwise.
+     */
+    private double[] probabilities;
+
+    private int[] aliases;
+
     /**
      * Currently played music.
      */
     private SoundSource currentStream = new EmptySoundSource();
 
     /**
-     * Full constructor.
+     * Next music, prepared and chained to the current one, null if not ready yet.
+     */
+    private SoundSource nextStream;
+
+    /**
+     * Incremented every time the current music changes, to discard outdated preparations.
+     */
+    private int generation;
+
+    /**
+     * Duration of the overlap between two musics, in milliseconds.
+     */
+    private long crossfade;
+
+    /**
+     * Bus the musics are played on.
+     */
+    private AudioBus bus;
+
+    /**
+     * Create a playlist not registered in any engine.
      *
-     * @param name         Play list name, must be unique.
+     * @param name         Play list name.
      * @param soundBuilder Constructor to build the audio files.
      */
     Playlist(final String name, final SoundBuilder soundBuilder) {
-        super(name);
-        Objects.requireNonNull(soundBuilder);
-        this.builder = soundBuilder;
-        Playlist.REGISTERER.register(this);
+        this(name, soundBuilder, new AudioBus(AudioBus.MUSIC, null), null);
     }
 
     /**
-     * Retrieve a Playlist from its unique name.
+     * Create a playlist of an engine, played on its music bus, the engine registers it.
      *
-     * @param name Unique playlist name.
-     * @return Found playlist.
+     * @param name   Play list name, must be unique in the engine.
+     * @param engine Engine building the audio files, and where the playlist is unregistered once closed.
      */
-    public static Playlist get(final String name) {
-        Objects.requireNonNull(name);
-        return Playlist.REGISTERER.get(name);
+    Playlist(final String name, final BaseAudioEngine engine) {
+        this(name, engine, engine.getBus(AudioBus.MUSIC), engine);
+    }
+
+    /**
+     * Full constructor.
+     *
+     * @param name         Play list name.
+     * @param soundBuilder Constructor to build the audio files.
+     * @param bus          Bus the musics are played on, cannot be null.
+     * @param owner        Engine where this playlist is registered, null if not registered.
+     */
+    private Playlist(final String name, final SoundBuilder soundBuilder, final AudioBus bus, final BaseAudioEngine owner) {
+        super(name);
+        Objects.requireNonNull(soundBuilder);
+        Objects.requireNonNull(bus);
+        this.builder = soundBuilder;
+        this.bus = bus;
+        this.owner = owner;
+        this.prefetcher = owner == null ? PREFETCH : owner.getPrefetchExecutor();
     }
 
     /**
      * Stop playing the current music.
      */
-    public final void stop() {
+    public final synchronized void stop() {
+        this.generation++;
         this.currentStream.stop();
+        this.discardNext();
+    }
+
+    /**
+     * Stop and release the playing and prepared musics, and unregister this playlist from its engine.
+     * It can still be played afterwards, but cannot be retrieved from the engine anymore.
+     */
+    @Override
+    public final void close() {
+        synchronized (this) {
+            this.generation++;
+            this.currentStream.delete();
+            this.currentStream = new EmptySoundSource();
+            this.discardNext();
+        }
+        if (this.owner != null) {
+            this.owner.unregister(this);
+        }
     }
 
     /**
      * Play the playNext music in the list.
      */
-    public final void playNext() {
-        this.currentStream.stop();
+    public final synchronized void playNext() {
+        this.generation++;
+        this.currentStream.delete();
+        this.currentStream = new EmptySoundSource();
+        this.discardNext();
         if (!this.musics.isEmpty()) {
             try {
-                this.currentStream = this.builder.createSound(this.musics.get(this.current).getFile());
-                this.currentStream.play();
-                this.current++;
-                if (this.current == this.musics.size()) {
-                    this.current = 0;
-                }
-                this.currentStream.addEndPlayListener(this);
+                this.start(this.builder.createStream(this.musics.get(this.upcoming()).getFile(), this.bus));
             } catch (SoundCreationException e) {
                 this.logger.log(System.Logger.Level.ERROR, "Error creating audio:", e);
             }
@@ -122,18 +219,298 @@ public class Playlist extends BaseRegisterable implements EndPlayListener {
 
     @Override
     public final void soundFinished() {
+        synchronized (this) {
+            SoundSource next = this.nextStream;
+            if (next != null) {
+                this.nextStream = null;
+                this.generation++;
+                this.currentStream.delete();
+                this.currentStream = next;
+                if (!next.isPlaying()) {
+                    next.play();
+                }
+                this.advance();
+                this.prefetch();
+                return;
+            }
+        }
         this.playNext();
     }
 
     /**
-     * Add a music to this playlist.
+     * @return true if the next music is prepared and will start without gap, false if it is still loading.
+     */
+    public final synchronized boolean isNextPrepared() {
+        return this.nextStream != null;
+    }
+
+    /**
+     * Overlap the end of every music with the beginning of the next one, the first fading out while the second fades in.
+     * The gain ramps are computed by the audio engine, if it does not support them, the musics are chained without overlap.
+     * Only applies to the musics prepared after this call.
+     *
+     * @param milliseconds Duration of the overlap, 0 to disable it.
+     * @return This object for chaining.
+     */
+    public final synchronized Playlist setCrossfade(final long milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException("Crossfade duration cannot be negative.");
+        }
+        this.crossfade = milliseconds;
+        return this;
+    }
+
+    /**
+     * Add a music to this playlist, with a weight of 1.
      *
      * @param music Music to add.
      * @return This object for chaining.
      */
-    public final Playlist addMusic(final Music music) {
+    public final synchronized Playlist addMusic(final Music music) {
+        return this.addMusic(music, 1f);
+    }
+
+    /**
+     * Add a music to this playlist, in weighted mode it is drawn with a probability proportional to its weight.
+     *
+     * @param music  Music to add.
+     * @param weight Weight of the music, 0 to never draw it in weighted mode, cannot be negative.
+     * @return This object for chaining.
+     */
+    public final synchronized Playlist addMusic(final Music music, final float weight) {
         assert music != null;
+        if (!(weight >= 0) || Float.isInfinite(weight)) {
+            throw new IllegalArgumentException("Music weight cannot be negative: " + weight);
+        }
+        int index = this.musics.size();
+        if (index == this.weights.length) {
+            this.weights = Arrays.copyOf(this.weights, index * 2);
+        }
+        this.weights[index] = weight;
         this.musics.add(music);
+        this.probabilities = null;
+        return this;
+    }
+
+    /**
+     * Choose how the next musics are chosen, from the next music to prepare.
+     *
+     * @param mode Mode to use, cannot be null.
+     * @return This object for chaining.
+     */
+    public final synchronized Playlist setMode(final PlaylistMode mode) {
+        Objects.requireNonNull(mode);
+        this.mode = mode;
+        this.cursor = this.order.length;
+        if (mode != PlaylistMode.SEQUENTIAL) {
+            this.current = -1;
+        }
+        return this;
+    }
+
+    /**
+     * @return The mode choosing the next musics, never null.
+     */
+    public final synchronized PlaylistMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Set the random source of the shuffle and weighted modes.
+     *
+     * @param random Random source to use.
+     */
+    final synchronized void setRandom(final Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Choose the bus the musics are played on, the engine music bus by default.
+     * Only applies to the musics created after this call.
+     *
+     * @param bus Bus to use, cannot be null.
+     * @return This object for chaining.
+     */
+    public final synchronized Playlist setBus(final AudioBus bus) {
+        Objects.requireNonNull(bus);
+        this.bus = bus;
         return this;
     }
+
+    /**
+     * @return The bus the musics are played on, never null.
+     */
+    public final synchronized AudioBus getBus() {
+        return this.bus;
+    }
+
+    /**
+     * @return The musics of this playlist, in insertion order, never null.
+     */
+    public final synchronized List<Music> getMusics() {
+        return List.copyOf(this.musics);
+    }
+
+    /**
+     * Play a music and start preparing the next one.
+     *
+     * @param stream Music to play.
+     */
+    private void start(final SoundSource stream) {
+        this.currentStream = stream;
+        stream.play();
+        this.advance();
+        stream.addEndPlayListener(this);
+        this.prefetch();
+    }
+
+    /**
+     * @return The index of the next music to play, chosen now if it was not yet.
+     */
+    private int upcoming() {
+        if (this.current == -1) {
+            this.advance();
+        }
+        return this.current;
+    }
+
+    /**
+     * Choose the music to play after the current one, according to the mode.
+     *
+     * @return The index of the chosen music.
+     */
+    final synchronized int advance() {
+        int size = this.musics.size();
+        switch (this.mode) {
+            case SHUFFLE -> this.current = this.shuffled(size);
+            case WEIGHTED -> this.current = this.weighted(size);
+            default -> this.current = this.current + 1 >= size ? 0 : this.current + 1;
+        }
+        return this.current;
+    }
+
+    /**
+     * Provide the next music of the shuffle cycle, the order is shuffled in place when a cycle begins.
+     *
+     * @param size Number of musics.
+     *
+     * @return The index of the chosen music.
+     */
+    private int shuffled(final int size) {
+        if (this.order.length != size) {
+            this.order = new int[size];
+            for (int i = 0; i < size; i++) {
+                this.order[i] = i;
+            }
+            this.cursor = size;
+        }
+        if (this.cursor >= size) {
+            for (int i = size - 1; i > 0; i--) {
+                this.swap(i, this.random.nextInt(i + 1));
+            }
+            if (size > 1 && this.order[0] == this.current) {
+                this.swap(0, 1 + this.random.nextInt(size - 1));
+            }
+            this.cursor = 0;
+        }
+        return this.order[this.cursor++];
+    }
+
+    private void swap(final int i, final int j) {
+        int value = this.order[i];
+        this.order[i] = this.order[j];
+        this.order[j] = value;
+    }
+
+    /**
+     * Draw a music according to the weights with the alias table, built again only when the musics changed.
+     *
+     * @param size Number of musics.
+     *
+     * @return The index of the chosen music.
+     */
+    private int weighted(final int size) {
+        if (this.probabilities == null) {
+            this.buildAliases(size);
+        }
+        int column = this.random.nextInt(size);
+        return this.random.nextDouble() < this.probabilities[column] ? column : this.aliases[column];
+    }
+
+    /**
+     * Build the alias table with the Vose method, linear in the number of musics.
+     * If all the weights are 0, the musics are drawn uniformly.
+     *
+     * @param size Number of musics.
+     */
+    private void buildAliases(final int size) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += this.weights[i];
+        }
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = total == 0 ? 1 : this.weights[i] * size / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        this.probabilities = new double[size];
+        this.aliases = new int[size];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            this.probabilities[less] = scaled[less];
+            this.aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            this.probabilities[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            this.probabilities[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Prepare the next music with the prefetch executor, and chain it to the current one once ready.
+     */
+    private void prefetch() {
+        int expected = this.generation;
+        SoundSource playing = this.currentStream;
+        String file = this.musics.get(this.upcoming()).getFile();
+        AudioBus target = this.bus;
+        CompletableFuture.supplyAsync(() -> this.builder.createStream(file, target), this.prefetcher)
+                .whenComplete((next, error) -> this.prefetched(expected, playing, next, error));
+    }
+
+    private synchronized void prefetched(int expected, SoundSource playing, SoundSource next, Throwable error) {
+        if (error != null) {
+            this.logger.log(System.Logger.Level.ERROR, "Error preparing audio:", error);
+        } else if (expected != this.generation) {
+            next.delete();
+        } else {
+            next.addEndPlayListener(this);
+            playing.chain(next, this.crossfade);
+            this.nextStream = next;
+        }
+    }
+
+    private void discardNext() {
+        if (this.nextStream != null) {
+            this.nextStream.delete();
+            this.nextStream = null;
+        }
+    }
 }
@@ -41,4 +41,67 @@ public interface SoundBuilder {
      */
     SoundSource createSound(String file);
 
+    /**
+     * Build a SoundSource from an audio file.
+     * Implementations can use the file type to load it more efficiently, by default it is loaded from its name.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    default SoundSource createSound(AudioFile file) {
+        return this.createSound(file.name);
+    }
+
+    /**
+     * Build a SoundSource decoding the file progressively while it is played, meant for long files like musics.
+     * Implementations without streaming support load the file fully.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    default SoundSource createStream(String file) {
+        return this.createSound(file);
+    }
+
+    /**
+     * Build a SoundSource played on a mix bus, its gain, mute and pause apply to the source.
+     * Implementations without bus support ignore it.
+     *
+     * @param file File to load, cannot be null.
+     * @param bus  Bus to play the source on, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    default SoundSource createSound(String file, AudioBus bus) {
+        return this.createSound(file);
+    }
+
+    /**
+     * Build a SoundSource from an audio file, played on a mix bus.
+     * Implementations without bus support ignore it.
+     *
+     * @param file File to load, cannot be null.
+     * @param bus  Bus to play the source on, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    default SoundSource createSound(AudioFile file, AudioBus bus) {
+        return this.createSound(file);
+    }
+
+    /**
+     * Build a SoundSource decoding the file progressively while it is played, on a mix bus.
+     * Implementations without bus support ignore it.
+     *
+     * @param file File to load, cannot be null.
+     * @param bus  Bus to play the source on, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    default SoundSource createStream(String file, AudioBus bus) {
+        return this.createStream(file);
+    }
+
 }
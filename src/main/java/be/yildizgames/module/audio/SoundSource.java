@@ -58,6 +58,59 @@ public interface SoundSource {
      */
     SoundSource setPosition(final Point3D pos);
 
+    /**
+     * Set the audio position in the 3d space, without allocating a point.
+     *
+     * @param x New position x.
+     * @param y New position y.
+     * @param z New position z.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource setPosition(float x, float y, float z) {
+        return this.setPosition(Point3D.valueOf(x, y, z));
+    }
+
+    /**
+     * Set the audio velocity in the 3d space, in units per second.
+     * Implementations not using the velocity ignore it.
+     *
+     * @param x New velocity x.
+     * @param y New velocity y.
+     * @param z New velocity z.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource setVelocity(float x, float y, float z) {
+        return this;
+    }
+
+    /**
+     * Change the playback speed, and so the pitch, 2 is one octave higher, 0.5 one octave lower.
+     * Implementations without pitch support ignore it.
+     *
+     * @param pitch Speed factor, 1 for the original speed, must be positive.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource setPitch(float pitch) {
+        return this;
+    }
+
+    /**
+     * Set the direction the audio is emitted to, a zero direction is omnidirectional.
+     * Implementations not using the direction ignore it.
+     *
+     * @param x New direction x.
+     * @param y New direction y.
+     * @param z New direction z.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource setDirection(float x, float y, float z) {
+        return this;
+    }
+
     /**
      * The audio will be played in loop until stop is called.
      */
@@ -70,5 +123,47 @@ public interface SoundSource {
 
     SoundSource setGain(float gain);
 
+    /**
+     * Progressively change the gain, from its current value to the target one.
+     * Implementations without ramp support set the gain immediately.
+     *
+     * @param gain         Gain to reach.
+     * @param milliseconds Duration of the change, 0 to set it immediately.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource fadeTo(float gain, long milliseconds) {
+        return this.setGain(gain);
+    }
+
+    /**
+     * Start another source right after this one reaches its end, without gap.
+     * Implementations without sample accurate support start it when the end is notified.
+     *
+     * @param next Source to play after this one, cannot be null.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource chain(SoundSource next) {
+        return this.addEndPlayListener(() -> {
+            if (!next.isPlaying()) {
+                next.play();
+            }
+        });
+    }
+
+    /**
+     * Start another source before this one reaches its end, fading this one out while the other fades in.
+     * Implementations without crossfade support chain the source without overlap.
+     *
+     * @param next         Source to play after this one, cannot be null.
+     * @param milliseconds Duration of the overlap, 0 to chain without overlap.
+     *
+     * @return This object for chaining.
+     */
+    default SoundSource chain(SoundSource next, long milliseconds) {
+        return this.chain(next);
+    }
+
     SoundSource delete();
 }
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * An engine update took longer than the threshold, 5 ms by default, it can be changed in the recording settings.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.audio.SlowUpdate")
+@Label("Slow Audio Update")
+@Category({"Yildiz Engine", "Audio"})
+@Description("Audio engine update longer than the threshold.")
+@Threshold("5 ms")
+public final class SlowUpdateEvent extends Event {
+
+    @Label("Real Voices")
+    private int realVoices;
+
+    @Label("Virtual Voices")
+    private int virtualVoices;
+
+    /**
+     * Commit the event, if it is enabled and the update was longer than the threshold.
+     *
+     * @param realVoices    Number of voices really mixed.
+     * @param virtualVoices Number of playing voices not mixed.
+     */
+    public void updated(final int realVoices, final int virtualVoices) {
+        if (this.shouldCommit()) {
+            this.realVoices = realVoices;
+            this.virtualVoices = virtualVoices;
+            this.commit();
+        }
+    }
+}
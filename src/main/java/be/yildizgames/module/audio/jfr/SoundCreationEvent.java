@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creation of a sound source, its duration includes the loading of the file, successful or not.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.audio.SoundCreation")
+@Label("Sound Creation")
+@Category({"Yildiz Engine", "Audio"})
+@Description("Creation of a sound source from a file.")
+public final class SoundCreationEvent extends Event {
+
+    @Label("File")
+    private String file;
+
+    @Label("Storage")
+    @Description("How the samples are kept: decoded, mapped or stream.")
+    private String storage;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Failure")
+    private String failure;
+
+    /**
+     * Commit the event for a created source, if the event is enabled.
+     *
+     * @param file    Requested file.
+     * @param storage How the samples are kept.
+     * @param bytes   Memory used by the samples.
+     */
+    public void succeeded(final String file, final String storage, final long bytes) {
+        if (this.shouldCommit()) {
+            this.file = file;
+            this.storage = storage;
+            this.bytes = bytes;
+            this.commit();
+        }
+    }
+
+    /**
+     * Commit the event for a source which could not be created, if the event is enabled.
+     *
+     * @param file    Requested file.
+     * @param failure Reason of the failure.
+     */
+    public void failed(final String file, final Exception failure) {
+        if (this.shouldCommit()) {
+            this.file = file;
+            this.failure = failure.getMessage();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Full decoding of a file in memory, its duration is the decoding time.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.audio.SoundDecode")
+@Label("Sound Decode")
+@Category({"Yildiz Engine", "Audio"})
+@Description("Decoding of a file in memory.")
+public final class SoundDecodeEvent extends Event {
+
+    @Label("File")
+    private String file;
+
+    @Label("Decoded Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Commit the event, if it is enabled.
+     *
+     * @param file  Decoded file.
+     * @param bytes Memory used by the decoded samples.
+     */
+    public void decoded(final String file, final long bytes) {
+        if (this.shouldCommit()) {
+            this.file = file;
+            this.bytes = bytes;
+            this.commit();
+        }
+    }
+}
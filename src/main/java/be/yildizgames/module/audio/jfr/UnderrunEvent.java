@@ -0,0 +1,80 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Some audio data was not ready in time: a stream found its ring empty, or the audio thread mixed a block late.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.audio.Underrun")
+@Label("Audio Underrun")
+@Category({"Yildiz Engine", "Audio"})
+@Description("Audio data not ready in time.")
+@StackTrace(false)
+public final class UnderrunEvent extends Event {
+
+    @Label("Stream")
+    @Description("Stream found empty, null for a late audio thread block.")
+    private String stream;
+
+    @Label("Lateness")
+    @Timespan
+    private long late;
+
+    /**
+     * Commit the event for an empty stream, if it is enabled.
+     *
+     * @param stream Name of the stream.
+     */
+    public static void stream(final String stream) {
+        UnderrunEvent event = new UnderrunEvent();
+        if (event.shouldCommit()) {
+            event.stream = stream;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commit the event for a late audio thread block, if it is enabled.
+     *
+     * @param nanos Time elapsed since the block deadline, in nanoseconds.
+     */
+    public static void lateBlock(final long nanos) {
+        UnderrunEvent event = new UnderrunEvent();
+        if (event.shouldCommit()) {
+            event.late = nanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An audible sound became virtual because more audible sounds exceeded the voice limit.
+ *
+ * @author Grégory Van den Borre
+ */
+@Name("be.yildizgames.audio.VoiceSteal")
+@Label("Voice Steal")
+@Category({"Yildiz Engine", "Audio"})
+@Description("An audible sound stopped being mixed because of the voice limit.")
+@StackTrace(false)
+public final class VoiceStealEvent extends Event {
+
+    @Label("Sound")
+    private String sound;
+
+    @Label("Audibility")
+    private float audibility;
+
+    @Label("Max Voices")
+    private int maxVoices;
+
+    /**
+     * Commit the event, if it is enabled.
+     *
+     * @param sound      Name of the stolen sound.
+     * @param audibility Gain the sound would have been mixed with.
+     * @param maxVoices  Voice limit.
+     */
+    public static void emit(final String sound, final float audibility, final int maxVoices) {
+        VoiceStealEvent event = new VoiceStealEvent();
+        if (event.shouldCommit()) {
+            event.sound = sound;
+            event.audibility = audibility;
+            event.maxVoices = maxVoices;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read frames from a cached decoded buffer.
+ * The buffer is only pinned while the source is playing, so the cache can evict it meanwhile,
+ * it is then decoded again by the thread asking to play it, or on the next start without audio thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class BufferReader implements FrameReader {
+
+    /**
+     * Cache providing the decoded samples.
+     */
+    private final SampleCache cache;
+
+    /**
+     * Cache entry for the played file.
+     */
+    private CachedSample sample;
+
+    /**
+     * Decoded samples, only set while playing.
+     */
+    private SampleBuffer buffer;
+
+    /**
+     * Next frame to read.
+     */
+    private int cursor;
+
+    private boolean looping;
+
+    /**
+     * Number of pins taken by prepare and not yet handed over to start.
+     */
+    private final AtomicInteger prepared = new AtomicInteger();
+
+    /**
+     * Full constructor.
+     *
+     * @param cache  Cache providing the decoded samples.
+     * @param sample Cache entry for the played file, null to set it later.
+     */
+    BufferReader(final SampleCache cache, final CachedSample sample) {
+        super();
+        this.cache = cache;
+        this.sample = sample;
+    }
+
+    /**
+     * Change the played file, only while stopped, the cursor is moved back to the first frame.
+     *
+     * @param sample Cache entry for the file to play.
+     */
+    void setSample(final CachedSample sample) {
+        this.sample = sample;
+        this.cursor = 0;
+    }
+
+    /**
+     * Pin the buffer, decoding it again if it was evicted, so the next start finds it without decoding.
+     * The entry is only replaced when evicted, so never while the audio thread is playing it.
+     */
+    @Override
+    public void prepare() {
+        while (this.sample.acquire() == null) {
+            this.sample = this.cache.get(this.sample.file);
+        }
+        this.prepared.incrementAndGet();
+    }
+
+    @Override
+    public void start() {
+        SampleBuffer acquired;
+        while ((acquired = this.sample.acquire()) == null) {
+            this.sample = this.cache.get(this.sample.file);
+        }
+        this.buffer = acquired;
+        this.releasePrepared();
+    }
+
+    @Override
+    public void stop() {
+        this.sample.release();
+        this.buffer = null;
+    }
+
+    @Override
+    public int read(final float[] target, final int frames) {
+        return this.advance(target, frames);
+    }
+
+    @Override
+    public int skip(final int frames) {
+        return this.advance(null, frames);
+    }
+
+    /**
+     * Move the cursor, copying the frames if a target is provided.
+     *
+     * @param target Array receiving the frames, null to only move the cursor.
+     * @param frames Maximum number of frames to move.
+     *
+     * @return The number of frames moved.
+     */
+    private int advance(final float[] target, final int frames) {
+        final int channels = this.buffer.channels;
+        final int total = this.buffer.frames;
+        int done = 0;
+        while (done < frames) {
+            if (this.cursor >= total) {
+                if (!this.looping || total == 0) {
+                    break;
+                }
+                this.cursor = 0;
+            }
+            int count = Math.min(frames - done, total - this.cursor);
+            if (target != null) {
+                System.arraycopy(this.buffer.samples, this.cursor * channels, target, done * channels, count * channels);
+            }
+            this.cursor += count;
+            done += count;
+        }
+        return done;
+    }
+
+    @Override
+    public long remaining() {
+        return this.looping ? Long.MAX_VALUE : Math.max(0, this.buffer.frames - this.cursor);
+    }
+
+    @Override
+    public void rewind() {
+        this.cursor = 0;
+    }
+
+    @Override
+    public void setLooping(final boolean looping) {
+        this.looping = looping;
+    }
+
+    @Override
+    public int channels() {
+        return this.sample.channels;
+    }
+
+    @Override
+    public void close() {
+        this.releasePrepared();
+    }
+
+    private void releasePrepared() {
+        for (int i = this.prepared.getAndSet(0); i > 0; i--) {
+            this.sample.release();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.nio.file.Path;
+
+/**
+ * Entry of the sample cache, it holds the decoded buffer of a file until it is evicted.
+ * A playing source pins the buffer, it cannot be evicted until all the sources using it are stopped.
+ *
+ * @author Grégory Van den Borre
+ */
+final class CachedSample {
+
+    /**
+     * Resolved file.
+     */
+    final Path file;
+
+    /**
+     * Size of the decoded samples, in bytes.
+     */
+    final long size;
+
+    /**
+     * Number of interleaved channels of the decoded samples.
+     */
+    final int channels;
+
+    /**
+     * Decoded samples, null once evicted.
+     */
+    private SampleBuffer buffer;
+
+    /**
+     * Number of sources currently playing this buffer.
+     */
+    private int players;
+
+    /**
+     * Eviction priority, the lowest priorities are evicted first.
+     */
+    private volatile int priority;
+
+    /**
+     * Last time the buffer was requested, in nanoseconds.
+     */
+    private volatile long lastUse = System.nanoTime();
+
+    /**
+     * Last use when the entry was moved to the end of its eviction queue, only used under the cache lock.
+     */
+    long queuedUse;
+
+    /**
+     * Full constructor.
+     *
+     * @param file     Resolved file.
+     * @param buffer   Decoded samples.
+     * @param priority Eviction priority.
+     */
+    CachedSample(final Path file, final SampleBuffer buffer, final int priority) {
+        super();
+        this.file = file;
+        this.buffer = buffer;
+        this.size = buffer.size();
+        this.channels = buffer.channels;
+        this.priority = priority;
+    }
+
+    /**
+     * Pin the buffer for a playing source.
+     *
+     * @return The buffer, null if it has been evicted.
+     */
+    synchronized SampleBuffer acquire() {
+        if (this.buffer != null) {
+            this.players++;
+            this.lastUse = System.nanoTime();
+        }
+        return this.buffer;
+    }
+
+    /**
+     * Unpin the buffer once a source stops playing it.
+     */
+    synchronized void release() {
+        if (this.players > 0) {
+            this.players--;
+        }
+    }
+
+    /**
+     * Drop the buffer if no source is playing it.
+     *
+     * @return true if the buffer was dropped, false if it is in use.
+     */
+    synchronized boolean evict() {
+        if (this.players > 0) {
+            return false;
+        }
+        this.buffer = null;
+        return true;
+    }
+
+    /**
+     * @return The decoded samples, null if evicted.
+     */
+    synchronized SampleBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    synchronized boolean isPlaying() {
+        return this.players > 0;
+    }
+
+    void touch() {
+        this.lastUse = System.nanoTime();
+    }
+
+    long getLastUse() {
+        return this.lastUse;
+    }
+
+    int getPriority() {
+        return this.priority;
+    }
+
+    void setPriority(final int priority) {
+        this.priority = priority;
+    }
+}
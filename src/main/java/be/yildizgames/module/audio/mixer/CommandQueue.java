@@ -0,0 +1,278 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded lock free queue of commands, pushed by any number of threads and drained by a single one.
+ * Every slot has a sequence number telling if it is free to write or ready to read,
+ * producers claim a slot by moving the tail, then publish it by updating its sequence.
+ * Command arguments are stored in preallocated primitive arrays, pushing and draining do not allocate.
+ * When the queue is full, the commands go to an unbounded overflow list instead, so a producer never waits for the consumer.
+ * Once a command overflowed, the following ones overflow too until the consumer took them all, to keep their order.
+ * The overflow list allocates, it is only meant to absorb bursts, the capacity must fit the usual load.
+ * The consumer never waits for the overflow lock, if a producer holds it, the overflowed commands are taken on the next drain.
+ *
+ * @author Grégory Van den Borre
+ */
+final class CommandQueue {
+
+    /**
+     * Number of float arguments for every command.
+     */
+    private static final int FLOATS = 3;
+
+    /**
+     * Slot count minus 1, the slot count is a power of 2.
+     */
+    private final int mask;
+
+    /**
+     * Sequence of every slot: equal to the position when free to write, position + 1 when ready to read.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Next position to claim by the producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Command arguments.
+     */
+    private final int[] operations;
+
+    private final Object[] targets;
+
+    private final Object[] arguments;
+
+    private final float[] floats;
+
+    private final long[] values;
+
+    /**
+     * Guard for the overflow list, the consumer only tries to acquire it.
+     */
+    private final ReentrantLock overflowLock = new ReentrantLock();
+
+    /**
+     * Commands pushed while the queue was full, guarded by the overflow lock.
+     */
+    private ArrayDeque<Command> overflow = new ArrayDeque<>();
+
+    /**
+     * Overflowed commands taken by the consumer and not executed yet, only used by the consumer.
+     */
+    private ArrayDeque<Command> pending = new ArrayDeque<>();
+
+    /**
+     * True while the overflow list is not empty, the producers then add their commands to it.
+     */
+    private volatile boolean overflowing;
+
+    /**
+     * Number of commands added to the overflow list.
+     */
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /**
+     * Next position to read, only used by the consumer.
+     */
+    private long head;
+
+    /**
+     * Create a new queue.
+     *
+     * @param capacity Number of commands the queue can hold, rounded up to a power of 2, must be at least 2.
+     */
+    CommandQueue(final int capacity) {
+        super();
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid command queue capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.operations = new int[size];
+        this.targets = new Object[size];
+        this.arguments = new Object[size];
+        this.floats = new float[size * FLOATS];
+        this.values = new long[size];
+    }
+
+    /**
+     * Add a command, can be called from any thread, never waits for the consumer.
+     *
+     * @param operation Command code.
+     * @param target    Object the command applies to.
+     * @param argument  Object argument.
+     * @param a         First float argument.
+     * @param b         Second float argument.
+     * @param c         Third float argument.
+     * @param value     Long argument.
+     */
+    void push(final int operation, final Object target, final Object argument, final float a, final float b, final float c, final long value) {
+        long position;
+        int slot;
+        while (true) {
+            if (this.overflowing) {
+                this.pushOverflow(new Command(operation, target, argument, a, b, c, value));
+                return;
+            }
+            position = this.tail.get();
+            slot = (int) position & this.mask;
+            long difference = this.sequences.get(slot) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                this.pushOverflow(new Command(operation, target, argument, a, b, c, value));
+                return;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        this.operations[slot] = operation;
+        this.targets[slot] = target;
+        this.arguments[slot] = argument;
+        this.floats[slot * FLOATS] = a;
+        this.floats[slot * FLOATS + 1] = b;
+        this.floats[slot * FLOATS + 2] = c;
+        this.values[slot] = value;
+        this.sequences.lazySet(slot, position + 1);
+    }
+
+    private void pushOverflow(final Command command) {
+        this.overflowLock.lock();
+        try {
+            this.overflow.add(command);
+            this.overflowing = true;
+        } finally {
+            this.overflowLock.unlock();
+        }
+        this.overflowCount.incrementAndGet();
+    }
+
+    /**
+     * Execute the queued commands, in the order they were pushed, only called by the consumer thread.
+     * The overflowed commands are taken once the queue is empty, and executed before the commands pushed after.
+     * A command is removed from the queue before being executed, so the handler can push new ones.
+     *
+     * @param handler Command executor.
+     * @param max     Maximum number of commands to execute.
+     *
+     * @return The number of executed commands.
+     */
+    int drain(final Handler handler, final int max) {
+        int count = 0;
+        while (count < max) {
+            Command command = this.pending.poll();
+            if (command != null) {
+                handler.execute(command.operation, command.target, command.argument, command.a, command.b, command.c, command.value);
+                count++;
+                continue;
+            }
+            long position = this.head;
+            int slot = (int) position & this.mask;
+            if (this.sequences.get(slot) != position + 1) {
+                //A slot claimed and not published yet must be executed before the commands overflowed after it.
+                if (!this.overflowing || this.tail.get() != position || !this.overflowLock.tryLock()) {
+                    break;
+                }
+                try {
+                    ArrayDeque<Command> taken = this.overflow;
+                    this.overflow = this.pending;
+                    this.pending = taken;
+                    this.overflowing = false;
+                } finally {
+                    this.overflowLock.unlock();
+                }
+                continue;
+            }
+            int operation = this.operations[slot];
+            Object target = this.targets[slot];
+            Object argument = this.arguments[slot];
+            float a = this.floats[slot * FLOATS];
+            float b = this.floats[slot * FLOATS + 1];
+            float c = this.floats[slot * FLOATS + 2];
+            long value = this.values[slot];
+            this.targets[slot] = null;
+            this.arguments[slot] = null;
+            this.head = position + 1;
+            this.sequences.lazySet(slot, position + this.mask + 1);
+            handler.execute(operation, target, argument, a, b, c, value);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of commands the queue can hold.
+     */
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return The number of commands added to the overflow list because the queue was full.
+     */
+    long getOverflowCount() {
+        return this.overflowCount.get();
+    }
+
+    /**
+     * Command stored in the overflow list.
+     */
+    private record Command(int operation, Object target, Object argument, float a, float b, float c, long value) {
+    }
+
+    /**
+     * Execute the commands drained from the queue.
+     */
+    @FunctionalInterface
+    interface Handler {
+
+        /**
+         * Execute one command.
+         *
+         * @param operation Command code.
+         * @param target    Object the command applies to.
+         * @param argument  Object argument.
+         * @param a         First float argument.
+         * @param b         Second float argument.
+         * @param c         Third float argument.
+         * @param value     Long argument.
+         */
+        void execute(int operation, Object target, Object argument, float a, float b, float c, long value);
+    }
+}
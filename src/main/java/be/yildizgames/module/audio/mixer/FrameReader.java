@@ -0,0 +1,105 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+/**
+ * Provide the frames played by a sound source.
+ *
+ * @author Grégory Van den Borre
+ */
+interface FrameReader {
+
+    /**
+     * Called when the source starts playing, to make the first frames available.
+     */
+    void start();
+
+    /**
+     * Called by the thread asking the source to play, before the command is queued for the audio thread,
+     * to load what start needs, so the audio thread never waits for a file to be read.
+     * What is prepared is kept until the next start or close.
+     */
+    default void prepare() {
+        //Nothing to load by default.
+    }
+
+    /**
+     * Called when the source stops playing.
+     */
+    void stop();
+
+    /**
+     * Copy the next frames, wrapping to the beginning if looping.
+     *
+     * @param target Array receiving the interleaved frames, starting at 0.
+     * @param frames Maximum number of frames to copy.
+     *
+     * @return The number of copied frames, less than requested only when the end is reached.
+     */
+    int read(float[] target, int frames);
+
+    /**
+     * Advance as if the next frames were read, without providing them.
+     *
+     * @param frames Maximum number of frames to skip.
+     *
+     * @return The number of skipped frames, less than requested only when the end is reached.
+     */
+    int skip(int frames);
+
+    /**
+     * Only called while the reader is started.
+     *
+     * @return The number of frames left before the end, Long.MAX_VALUE when looping.
+     */
+    long remaining();
+
+    /**
+     * Move back to the first frame.
+     */
+    void rewind();
+
+    /**
+     * @param looping true to wrap to the beginning at the end of the data.
+     */
+    void setLooping(boolean looping);
+
+    /**
+     * @return The number of interleaved channels.
+     */
+    int channels();
+
+    /**
+     * @return true if the frames are decoded from the file while playing.
+     */
+    default boolean isStreamed() {
+        return false;
+    }
+
+    /**
+     * Release all resources, the reader is no longer used afterward, can be called more than once.
+     */
+    void close();
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read frames from a memory mapped wave file, converting them to floats while reading.
+ * Nothing is loaded in the heap, the pages are loaded by the OS when first read and shared between processes.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MappedReader implements FrameReader {
+
+    /**
+     * Mapped file.
+     */
+    private final MappedWave wave;
+
+    /**
+     * View on the mapped data, used to read the samples.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Next frame to read.
+     */
+    private int cursor;
+
+    private boolean looping;
+
+    /**
+     * Full constructor.
+     *
+     * @param wave Mapped file to read.
+     */
+    MappedReader(final MappedWave wave) {
+        super();
+        this.wave = wave;
+        this.data = wave.view();
+    }
+
+    @Override
+    public void start() {
+        //Nothing to prepare, pages are loaded on demand.
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to release, the mapping is shared.
+    }
+
+    @Override
+    public int read(final float[] target, final int frames) {
+        return this.advance(target, frames);
+    }
+
+    @Override
+    public int skip(final int frames) {
+        return this.advance(null, frames);
+    }
+
+    /**
+     * Move the cursor, converting the frames if a target is provided.
+     *
+     * @param target Array receiving the frames, null to only move the cursor.
+     * @param frames Maximum number of frames to move.
+     *
+     * @return The number of frames moved.
+     */
+    private int advance(final float[] target, final int frames) {
+        final WaveFormat format = this.wave.format;
+        final int total = this.wave.frames;
+        int done = 0;
+        while (done < frames) {
+            if (this.cursor >= total) {
+                if (!this.looping || total == 0) {
+                    break;
+                }
+                this.cursor = 0;
+            }
+            int count = Math.min(frames - done, total - this.cursor);
+            if (target != null) {
+                this.data.position(this.cursor * format.frameSize());
+                WaveDecoder.toFloat(format, this.data, target, done * format.channels, count * format.channels);
+            }
+            this.cursor += count;
+            done += count;
+        }
+        return done;
+    }
+
+    @Override
+    public long remaining() {
+        return this.looping ? Long.MAX_VALUE : Math.max(0, this.wave.frames - this.cursor);
+    }
+
+    @Override
+    public void rewind() {
+        this.cursor = 0;
+    }
+
+    @Override
+    public void setLooping(final boolean looping) {
+        this.looping = looping;
+    }
+
+    @Override
+    public int channels() {
+        return this.wave.format.channels;
+    }
+
+    @Override
+    public void close() {
+        //Nothing to release, the mapping is shared and released once no longer referenced.
+    }
+}
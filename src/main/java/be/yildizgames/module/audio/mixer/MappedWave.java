@@ -0,0 +1,112 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.SoundCreationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Wave file data mapped in memory, the samples are read from the OS page cache instead of being copied in the heap.
+ * The mapping is shared by all the sources playing the file.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MappedWave {
+
+    /**
+     * Format of the file.
+     */
+    final WaveFormat format;
+
+    /**
+     * Mapped sample data, only complete frames, never read directly to keep its position untouched.
+     */
+    private final MappedByteBuffer data;
+
+    /**
+     * Number of frames in the data.
+     */
+    final int frames;
+
+    private MappedWave(final WaveFormat format, final MappedByteBuffer data) {
+        super();
+        this.format = format;
+        this.data = data;
+        this.frames = data.capacity() / format.frameSize();
+    }
+
+    /**
+     * Map the sample data of a wave file.
+     *
+     * @param file File to map, cannot be null.
+     *
+     * @return The mapped wave, never null.
+     *
+     * @throws SoundCreationException If the file cannot be read, is not a supported wave file, or its data is larger than 2GB.
+     */
+    static MappedWave map(final Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WaveFormat format = WaveDecoder.readFormat(channel);
+            long length = format.frames() * format.frameSize();
+            if (length > Integer.MAX_VALUE) {
+                throw new SoundCreationException("Audio file too large to be mapped: " + file);
+            }
+            return new MappedWave(format, channel.map(FileChannel.MapMode.READ_ONLY, format.dataOffset, length));
+        } catch (IOException e) {
+            throw new SoundCreationException(e);
+        }
+    }
+
+    /**
+     * @return A new view on the data, little endian, with its own position.
+     */
+    ByteBuffer view() {
+        return this.data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Load the mapped data in physical memory, so the first reads do not wait for the disk.
+     *
+     * @return This object.
+     */
+    MappedWave load() {
+        this.data.load();
+        return this;
+    }
+
+    /**
+     * @return The size of the mapped data, in bytes.
+     */
+    long size() {
+        return this.data.capacity();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+/**
+ * Inner loops of the mixer.
+ * When the jdk.incubator.vector module is available, the vector kernel is used, its results are bit identical to the scalar loops.
+ * It can be disabled with the system property be.yildizgames.audio.vector=false.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MixKernel {
+
+    /**
+     * True if the loops are run by the vector kernel.
+     */
+    static final boolean VECTORIZED = isVectorAvailable();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MixKernel() {
+        super();
+    }
+
+    /**
+     * Accumulate interleaved frames into a stereo interleaved mix buffer.
+     * Mono frames are sent to both sides, only the first two channels of other frames are used.
+     *
+     * @param source   Interleaved frames.
+     * @param from     First frame to read in the source.
+     * @param channels Number of channels in the source.
+     * @param mix      Stereo interleaved buffer to accumulate into.
+     * @param offset   First frame to write in the mix buffer.
+     * @param frames   Number of frames to accumulate.
+     * @param left     Gain for the left side.
+     * @param right    Gain for the right side.
+     */
+    static void accumulate(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                           final int frames, final float left, final float right) {
+        if (VECTORIZED) {
+            VectorMixKernel.accumulate(source, from, channels, mix, offset, frames, left, right);
+        } else {
+            accumulateScalar(source, from, channels, mix, offset, frames, left, right);
+        }
+    }
+
+    /**
+     * Scalar loop of accumulate, also used for the frames the vector kernel cannot process.
+     */
+    static void accumulateScalar(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                                 final int frames, final float left, final float right) {
+        int out = offset * 2;
+        if (channels == 1) {
+            for (int i = from, end = from + frames; i < end; i++) {
+                float sample = source[i];
+                mix[out++] += sample * left;
+                mix[out++] += sample * right;
+            }
+        } else {
+            for (int i = from * channels, end = (from + frames) * channels; i < end; i += channels) {
+                mix[out++] += source[i] * left;
+                mix[out++] += source[i + 1] * right;
+            }
+        }
+    }
+
+    /**
+     * Accumulate interleaved frames into a stereo interleaved mix buffer, with a gain changing linearly on every frame.
+     * The gain applied to the frame i of the range is start + step * i, on top of the side gains.
+     *
+     * @param source   Interleaved frames.
+     * @param from     First frame to read in the source.
+     * @param channels Number of channels in the source.
+     * @param mix      Stereo interleaved buffer to accumulate into.
+     * @param offset   First frame to write in the mix buffer.
+     * @param frames   Number of frames to accumulate.
+     * @param left     Gain for the left side.
+     * @param right    Gain for the right side.
+     * @param start    Ramp gain for the first frame.
+     * @param step     Ramp gain change between two frames.
+     */
+    static void accumulateRamp(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                               final int frames, final float left, final float right, final float start, final float step) {
+        if (VECTORIZED) {
+            VectorMixKernel.accumulateRamp(source, from, channels, mix, offset, frames, left, right, start, step);
+        } else {
+            accumulateRampScalar(source, from, channels, mix, offset, frames, left, right, start, step);
+        }
+    }
+
+    /**
+     * Scalar loop of accumulateRamp.
+     */
+    static void accumulateRampScalar(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                                     final int frames, final float left, final float right, final float start, final float step) {
+        int out = offset * 2;
+        int in = from * channels;
+        for (int i = 0; i < frames; i++, in += channels) {
+            float ramp = start + step * i;
+            mix[out++] += source[in] * left * ramp;
+            mix[out++] += source[channels == 1 ? in : in + 1] * right * ramp;
+        }
+    }
+
+    /**
+     * Limit all samples to [-1, 1].
+     *
+     * @param mix    Buffer to clamp.
+     * @param length Number of samples to clamp.
+     */
+    static void clamp(final float[] mix, final int length) {
+        if (VECTORIZED) {
+            VectorMixKernel.clamp(mix, length);
+        } else {
+            clampScalar(mix, 0, length);
+        }
+    }
+
+    /**
+     * Limit the samples of a range to [-1, 1].
+     *
+     * @param mix  Buffer to clamp.
+     * @param from First sample to clamp.
+     * @param to   End of the range, exclusive.
+     */
+    static void clampScalar(final float[] mix, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            mix[i] = Math.max(-1f, Math.min(1f, mix[i]));
+        }
+    }
+
+    /**
+     * Check if the vector kernel can be used: the incubator module is in the boot layer, and not disabled.
+     *
+     * @return True if the vector kernel can be used.
+     */
+    private static boolean isVectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("be.yildizgames.audio.vector", "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorMixKernel.isUsable();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,971 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.AudioBus;
+import be.yildizgames.module.audio.EndPlayDispatcher;
+import be.yildizgames.module.audio.EndPlayListeners;
+import be.yildizgames.module.audio.jfr.VoiceStartEvent;
+import be.yildizgames.module.audio.jfr.VoiceStealEvent;
+import be.yildizgames.module.audio.jfr.VoiceStopEvent;
+
+import java.util.Arrays;
+
+/**
+ * Mix all playing sources into a stereo interleaved float buffer.
+ * Only the most audible sources, up to the voice limit, are really mixed, the others are virtual voices:
+ * they keep advancing but are not read nor mixed, until their audibility ranks them among the mixed ones again.
+ * The playing positioned sources are indexed in a spatial grid, those outside the cells close to the listener
+ * are virtual without computing their attenuation.
+ * The sources are mixed into the submix of their bus, every submix is then mixed once into its parent with the bus gain,
+ * the sources of a muted bus are virtual, and those of a paused bus do not advance.
+ * Once the active list has grown to its working size, mixing a block does not allocate.
+ * When an audio thread is set, the state changes requested from other threads are queued as commands,
+ * and executed by the audio thread before mixing.
+ *
+ * @author Grégory Van den Borre
+ */
+final class Mixer implements CommandQueue.Handler {
+
+    /**
+     * Command codes.
+     */
+    static final int PLAY = 1;
+
+    static final int STOP = 2;
+
+    static final int GAIN = 3;
+
+    static final int FADE = 4;
+
+    static final int POSITION = 5;
+
+    static final int VELOCITY = 6;
+
+    static final int DIRECTION = 7;
+
+    static final int LOOP = 8;
+
+    static final int REWIND = 9;
+
+    static final int DELETE = 10;
+
+    static final int LISTENER_POSITION = 11;
+
+    static final int LISTENER_DIRECTION = 12;
+
+    static final int MAX_DISTANCE = 13;
+
+    static final int MAX_VOICES = 14;
+
+    static final int PITCH = 15;
+
+    static final int BUS = 16;
+
+    static final int ONE_SHOT = 17;
+
+    /**
+     * Maximum number of pitched voices interpolated with the windowed sinc in one block, the next ones use cubic.
+     */
+    static final int MAX_SINC_VOICES = 8;
+
+    /**
+     * Distance under which a positioned source is not attenuated.
+     */
+    private static final float REFERENCE_DISTANCE = 1f;
+
+    /**
+     * Gain of a directional source when the listener is right behind it.
+     */
+    private static final float BACK_GAIN = 0.25f;
+
+    /**
+     * Number of frames per second.
+     */
+    private final int sampleRate;
+
+    /**
+     * Number of frames mixed for every block.
+     */
+    private final int frames;
+
+    /**
+     * Stereo interleaved mix result.
+     */
+    private final float[] buffer;
+
+    /**
+     * Root of the bus tree, its submix is the mix result.
+     */
+    private final MixerBus master;
+
+    /**
+     * All the buses, a parent is always before its children.
+     */
+    private MixerBus[] buses = new MixerBus[4];
+
+    private int busCount;
+
+    /**
+     * Voices playing the one shot sounds, null until set.
+     */
+    private OneShotPool oneShots;
+
+    /**
+     * Buffer where the sources read their frames before being mixed.
+     */
+    private float[] scratch;
+
+    /**
+     * Distance from the listener where a positioned source becomes silent.
+     */
+    private float maxDistance = 100f;
+
+    /**
+     * Maximum number of sources really mixed, the others are virtual.
+     */
+    private int maxVoices = Integer.MAX_VALUE;
+
+    /**
+     * Number of real voices during the last mix.
+     */
+    private volatile int realCount;
+
+    /**
+     * Number of virtual voices during the last mix.
+     */
+    private volatile int virtualCount;
+
+    /**
+     * Index of the playing positioned sources, with cells as large as the max distance.
+     */
+    private final SpatialGrid grid = new SpatialGrid(this.maxDistance);
+
+    /**
+     * Incremented on every mix, to identify the sources found close to the listener.
+     */
+    private int stamp;
+
+    /**
+     * Sources currently playing, only the first activeCount are relevant.
+     */
+    private MixerSoundSource[] active = new MixerSoundSource[16];
+
+    private int activeCount;
+
+    /**
+     * Voice tables, the spatial state of every playing source, at the same index as in the active list.
+     * Stored as separate arrays to be scanned linearly while mixing.
+     */
+    private float[] positionX = new float[16];
+
+    private float[] positionY = new float[16];
+
+    private float[] positionZ = new float[16];
+
+    private float[] velocityX = new float[16];
+
+    private float[] velocityY = new float[16];
+
+    private float[] velocityZ = new float[16];
+
+    private float[] directionX = new float[16];
+
+    private float[] directionY = new float[16];
+
+    private float[] directionZ = new float[16];
+
+    /**
+     * True for the positioned mono sources, the others are not spatialized.
+     */
+    private boolean[] spatial = new boolean[16];
+
+    /**
+     * Snapshot of the active sources for the current mix, the active list can change while mixing.
+     */
+    private MixerSoundSource[] voices = new MixerSoundSource[16];
+
+    /**
+     * Left and right gains from the spatialization of every voice, for the current mix.
+     */
+    private float[] voiceLeft = new float[16];
+
+    private float[] voiceRight = new float[16];
+
+    /**
+     * Audibility of every voice, for the current mix.
+     */
+    private float[] audibility = new float[16];
+
+    /**
+     * Voice indices, the most audible first up to the voice limit.
+     */
+    private int[] order = new int[16];
+
+    /**
+     * Sources which reached their end during the last mix, waiting to be notified.
+     */
+    private MixerSoundSource[] finished = new MixerSoundSource[16];
+
+    private int finishedCount;
+
+    /**
+     * Sources to start during the current mix, because the source they are chained to has ended.
+     */
+    private MixerSoundSource[] chained = new MixerSoundSource[4];
+
+    /**
+     * Frame of the block where each chained source starts.
+     */
+    private int[] chainedOffset = new int[4];
+
+    private int chainedCount;
+
+    /**
+     * Commands to execute on the audio thread, null when there is no audio thread.
+     */
+    private volatile CommandQueue commands;
+
+    /**
+     * Thread mixing the blocks, null when mixed by the engine update.
+     */
+    private volatile Thread audioThread;
+
+    /**
+     * Listener position and right direction, for the current mix.
+     */
+    private float listenerX;
+
+    private float listenerY;
+
+    private float listenerZ;
+
+    private float rightX;
+
+    private float rightZ;
+
+    /**
+     * Result of the last spatialization.
+     */
+    private float left;
+
+    private float right;
+
+    /**
+     * Create a new mixer.
+     *
+     * @param sampleRate Number of frames per second, must be at least 1.
+     * @param frames     Number of frames mixed for every block, must be at least 1.
+     */
+    Mixer(final int sampleRate, final int frames) {
+        this(sampleRate, frames, null);
+    }
+
+    /**
+     * Create a new mixer.
+     *
+     * @param sampleRate Number of frames per second.
+     * @param frames     Number of frames mixed for every block, must be at least 1.
+     * @param master     Bus providing the master gain, mute and pause, null for a master always at unity gain.
+     */
+    Mixer(final int sampleRate, final int frames, final AudioBus master) {
+        super();
+        if (frames < 1) {
+            throw new IllegalArgumentException("Mixer block size must be at least 1.");
+        }
+        this.sampleRate = sampleRate;
+        this.frames = frames;
+        this.buffer = new float[frames * 2];
+        this.scratch = new float[frames * 2];
+        this.master = new MixerBus(master, null, frames);
+        this.buses[0] = this.master;
+        this.busCount = 1;
+    }
+
+    /**
+     * @return The root of the bus tree.
+     */
+    MixerBus getMaster() {
+        return this.master;
+    }
+
+    /**
+     * Set the pool playing the one shot sounds, before any sound is played.
+     *
+     * @param pool Pool to use.
+     */
+    void setOneShotPool(final OneShotPool pool) {
+        this.oneShots = pool;
+    }
+
+    /**
+     * Play a sound on a voice of the one shot pool, the voice is given back to the pool once the sound ends.
+     *
+     * @param name   Name of the played file.
+     * @param sample Cache entry of the played file, pinned by the caller so it is not decoded by the audio thread,
+     *               the pin is released once the voice started.
+     * @param x      Position x.
+     * @param y      Position y.
+     * @param z      Position z.
+     * @param gain   Gain of the sound.
+     */
+    void playOneShot(final String name, final CachedSample sample, final float x, final float y, final float z, final float gain) {
+        if (this.defer(ONE_SHOT, name, sample, x, y, z, Float.floatToRawIntBits(gain))) {
+            return;
+        }
+        this.oneShots.play(name, sample, x, y, z, gain);
+        sample.release();
+    }
+
+    /**
+     * Add a bus to the mixed ones, its parent must have been added before.
+     *
+     * @param bus Bus to add.
+     */
+    void addBus(final MixerBus bus) {
+        if (this.defer(BUS, null, bus, 0, 0, 0, 0)) {
+            return;
+        }
+        if (this.busCount == this.buses.length) {
+            this.buses = Arrays.copyOf(this.buses, this.busCount * 2);
+        }
+        this.buses[this.busCount] = bus;
+        this.busCount++;
+    }
+
+    /**
+     * Add a source to the playing ones, does nothing if it is already playing.
+     *
+     * @param source Source to play.
+     */
+    void start(final MixerSoundSource source) {
+        if (source.activeIndex != -1) {
+            return;
+        }
+        if (this.scratch.length < source.getChannels() * this.frames) {
+            this.scratch = new float[source.getChannels() * this.frames];
+        }
+        if (this.activeCount == this.active.length) {
+            this.grow(this.activeCount * 2);
+        }
+        int index = this.activeCount;
+        source.activeIndex = index;
+        this.active[index] = source;
+        this.activeCount++;
+        this.spatial[index] = source.isPositioned() && source.getChannels() == 1;
+        this.positionX[index] = source.getX();
+        this.positionY[index] = source.getY();
+        this.positionZ[index] = source.getZ();
+        this.velocityX[index] = source.getVelocityX();
+        this.velocityY[index] = source.getVelocityY();
+        this.velocityZ[index] = source.getVelocityZ();
+        this.directionX[index] = source.getDirectionX();
+        this.directionY[index] = source.getDirectionY();
+        this.directionZ[index] = source.getDirectionZ();
+        VoiceStartEvent.emit(source.getName(), this.activeCount);
+        if (this.spatial[index]) {
+            this.grid.insert(source);
+        }
+    }
+
+    private void grow(final int size) {
+        this.active = Arrays.copyOf(this.active, size);
+        this.finished = Arrays.copyOf(this.finished, Math.max(size, this.finished.length));
+        this.voices = Arrays.copyOf(this.voices, size);
+        this.voiceLeft = Arrays.copyOf(this.voiceLeft, size);
+        this.voiceRight = Arrays.copyOf(this.voiceRight, size);
+        this.audibility = Arrays.copyOf(this.audibility, size);
+        this.order = Arrays.copyOf(this.order, size);
+        this.positionX = Arrays.copyOf(this.positionX, size);
+        this.positionY = Arrays.copyOf(this.positionY, size);
+        this.positionZ = Arrays.copyOf(this.positionZ, size);
+        this.velocityX = Arrays.copyOf(this.velocityX, size);
+        this.velocityY = Arrays.copyOf(this.velocityY, size);
+        this.velocityZ = Arrays.copyOf(this.velocityZ, size);
+        this.directionX = Arrays.copyOf(this.directionX, size);
+        this.directionY = Arrays.copyOf(this.directionY, size);
+        this.directionZ = Arrays.copyOf(this.directionZ, size);
+        this.spatial = Arrays.copyOf(this.spatial, size);
+    }
+
+    /**
+     * Update the spatial index after the position of a playing source changed.
+     *
+     * @param source Source which moved.
+     */
+    void moved(final MixerSoundSource source) {
+        int index = source.activeIndex;
+        this.positionX[index] = source.getX();
+        this.positionY[index] = source.getY();
+        this.positionZ[index] = source.getZ();
+        this.spatial[index] = source.getChannels() == 1;
+        if (source.gridCell != -1) {
+            this.grid.move(source);
+        } else if (source.getChannels() == 1) {
+            this.grid.insert(source);
+        }
+    }
+
+    /**
+     * Update the voice tables after the velocity of a playing source changed.
+     *
+     * @param source Source with a new velocity.
+     */
+    void updateVelocity(final MixerSoundSource source) {
+        int index = source.activeIndex;
+        this.velocityX[index] = source.getVelocityX();
+        this.velocityY[index] = source.getVelocityY();
+        this.velocityZ[index] = source.getVelocityZ();
+    }
+
+    /**
+     * Update the voice tables after the direction of a playing source changed.
+     *
+     * @param source Source with a new direction.
+     */
+    void updateDirection(final MixerSoundSource source) {
+        int index = source.activeIndex;
+        this.directionX[index] = source.getDirectionX();
+        this.directionY[index] = source.getDirectionY();
+        this.directionZ[index] = source.getDirectionZ();
+    }
+
+    /**
+     * Remove a source from the playing ones, does nothing if it is not playing.
+     *
+     * @param source Source to remove.
+     */
+    void remove(final MixerSoundSource source) {
+        int index = source.activeIndex;
+        if (index == -1) {
+            return;
+        }
+        this.activeCount--;
+        MixerSoundSource last = this.active[this.activeCount];
+        this.active[index] = last;
+        last.activeIndex = index;
+        this.active[this.activeCount] = null;
+        this.moveVoice(this.activeCount, index);
+        source.activeIndex = -1;
+        if (source.gridCell != -1) {
+            this.grid.remove(source);
+        }
+        VoiceStopEvent.emit(source.getName(), this.activeCount);
+        source.stopped();
+    }
+
+    /**
+     * Copy the voice table entries of a source to another index.
+     */
+    private void moveVoice(final int from, final int to) {
+        this.spatial[to] = this.spatial[from];
+        this.positionX[to] = this.positionX[from];
+        this.positionY[to] = this.positionY[from];
+        this.positionZ[to] = this.positionZ[from];
+        this.velocityX[to] = this.velocityX[from];
+        this.velocityY[to] = this.velocityY[from];
+        this.velocityZ[to] = this.velocityZ[from];
+        this.directionX[to] = this.directionX[from];
+        this.directionY[to] = this.directionY[from];
+        this.directionZ[to] = this.directionZ[from];
+    }
+
+    /**
+     * Set the listener position used by the next mixes.
+     *
+     * @param x Listener position x.
+     * @param y Listener position y.
+     * @param z Listener position z.
+     */
+    void setListenerPosition(final float x, final float y, final float z) {
+        if (this.defer(LISTENER_POSITION, null, null, x, y, z, 0)) {
+            return;
+        }
+        this.listenerX = x;
+        this.listenerY = y;
+        this.listenerZ = z;
+    }
+
+    /**
+     * Set the listener direction used by the next mixes, only the horizontal part is used for panning.
+     *
+     * @param dx Listener direction x.
+     * @param dz Listener direction z.
+     */
+    void setListenerDirection(final float dx, final float dz) {
+        if (this.defer(LISTENER_DIRECTION, null, null, dx, 0, dz, 0)) {
+            return;
+        }
+        float directionLength = (float) Math.sqrt(dx * dx + dz * dz);
+        this.rightX = directionLength == 0 ? 1f : -dz / directionLength;
+        this.rightZ = directionLength == 0 ? 0f : dx / directionLength;
+    }
+
+    /**
+     * Mix one block of every playing source, for the current listener.
+     * A source reaching its end with a chained source starts it on the next frame, in the same block,
+     * or when its remaining frames match the crossfade duration if it has one.
+     */
+    void mix() {
+        Arrays.fill(this.buffer, 0f);
+        for (int b = 0; b < this.busCount; b++) {
+            this.buses[b].prepare();
+        }
+        final float lx = this.listenerX;
+        final float ly = this.listenerY;
+        final float lz = this.listenerZ;
+        final int count = this.activeCount;
+        final int near = ++this.stamp;
+        this.grid.mark(lx, ly, lz, this.maxDistance, near);
+        int audible = 0;
+        int culled = count;
+        for (int i = 0; i < count; i++) {
+            MixerSoundSource source = this.active[i];
+            this.voices[i] = source;
+            MixerBus bus = source.getBus();
+            float level = bus.effective > 0 && (source.gridCell == -1 || source.nearStamp == near) ? this.spatialize(source, i) * bus.effective : 0f;
+            if (level > 0) {
+                this.order[audible] = i;
+                this.audibility[i] = level;
+                this.voiceLeft[i] = this.left;
+                this.voiceRight[i] = this.right;
+                audible++;
+            } else {
+                culled--;
+                this.order[culled] = i;
+            }
+        }
+        int real = audible;
+        if (audible > this.maxVoices) {
+            select(this.order, this.audibility, audible, this.maxVoices);
+            real = this.maxVoices;
+        }
+        this.realCount = real;
+        this.virtualCount = count - real;
+        int sinc = 0;
+        for (int k = 0; k < count; k++) {
+            int i = this.order[k];
+            MixerSoundSource source = this.voices[i];
+            this.voices[i] = null;
+            if (source.getBus().paused) {
+                continue;
+            }
+            if (k < real && source.isResampled()) {
+                Interpolation quality = quality(this.audibility[i], sinc, source.isStreamed());
+                if (quality == Interpolation.SINC) {
+                    sinc++;
+                }
+                source.setInterpolation(quality);
+            }
+            boolean stolen = k >= real && k < audible;
+            if (stolen && !source.stolen) {
+                VoiceStealEvent.emit(source.getName(), this.audibility[i], this.maxVoices);
+            }
+            source.stolen = stolen;
+            this.mixSource(source, 0, this.voiceLeft[i], this.voiceRight[i], k >= real);
+        }
+        while (this.chainedCount > 0) {
+            this.chainedCount--;
+            MixerSoundSource source = this.chained[this.chainedCount];
+            this.chained[this.chainedCount] = null;
+            this.start(source);
+            this.spatialize(source, source.activeIndex);
+            this.mixSource(source, this.chainedOffset[this.chainedCount], this.left, this.right, false);
+        }
+        for (int b = this.busCount - 1; b >= 0; b--) {
+            MixerBus bus = this.buses[b];
+            if (bus.active && bus.parent != null) {
+                bus.parent.active = true;
+            }
+            if (!bus.used) {
+                bus.applied = bus.gain;
+                continue;
+            }
+            if (bus.parent == null) {
+                bus.mixInto(this.buffer, this.frames);
+            } else {
+                bus.mixInto(bus.parent.buffer, this.frames);
+                bus.parent.used = true;
+            }
+        }
+        MixKernel.clamp(this.buffer, this.buffer.length);
+    }
+
+    /**
+     * Choose how a pitched or converted voice is interpolated, the most audible voices get the best quality,
+     * the barely audible ones the cheapest, where the difference cannot be heard.
+     * The streamed voices already decode while playing, they get at most the cubic interpolation.
+     *
+     * @param audibility Audibility of the voice.
+     * @param sinc       Number of voices already using the windowed sinc in this block.
+     * @param streamed   True if the voice is decoded while playing.
+     *
+     * @return The interpolation to use, never null.
+     */
+    static Interpolation quality(final float audibility, final int sinc, final boolean streamed) {
+        if (audibility >= 0.5f) {
+            return sinc < MAX_SINC_VOICES && !streamed ? Interpolation.SINC : Interpolation.CUBIC;
+        }
+        if (audibility >= 0.1f) {
+            return Interpolation.CUBIC;
+        }
+        return audibility >= 0.02f ? Interpolation.LINEAR : Interpolation.NEAREST;
+    }
+
+    /**
+     * Compute the left and right gains of a source for the current listener, stored in left and right.
+     * Positioned mono sources are attenuated with the distance and panned, the others are played as they are.
+     *
+     * @param source Source to spatialize.
+     * @param index  Index of the source in the voice tables.
+     *
+     * @return The audibility of the source: its gain, or its highest gain if fading, multiplied by its distance attenuation.
+     */
+    private float spatialize(final MixerSoundSource source, final int index) {
+        this.left = 1f;
+        this.right = 1f;
+        float attenuated = 1f;
+        if (this.spatial[index]) {
+            float x = this.positionX[index] - this.listenerX;
+            float y = this.positionY[index] - this.listenerY;
+            float z = this.positionZ[index] - this.listenerZ;
+            float distance = (float) Math.sqrt(x * x + y * y + z * z);
+            attenuated = this.attenuation(distance);
+            float dx = this.directionX[index];
+            float dy = this.directionY[index];
+            float dz = this.directionZ[index];
+            if (distance > 0 && (dx != 0 || dy != 0 || dz != 0)) {
+                float facing = -(x * dx + y * dy + z * dz) / distance;
+                attenuated *= BACK_GAIN + (1f - BACK_GAIN) * 0.5f * (1f + facing);
+            }
+            float pan = distance == 0 ? 0 : (x * this.rightX + z * this.rightZ) / distance;
+            double angle = (pan + 1) * Math.PI * 0.25;
+            this.left = attenuated * (float) Math.cos(angle);
+            this.right = attenuated * (float) Math.sin(angle);
+        }
+        return source.getAudibleGain() * attenuated;
+    }
+
+    /**
+     * Mix the frames of a source, and handle its end if reached.
+     *
+     * @param source  Source to mix.
+     * @param offset  First frame of the block to mix into.
+     * @param left    Gain for the left channel.
+     * @param right   Gain for the right channel.
+     * @param virtual True to only advance the source, without mixing it.
+     */
+    private void mixSource(final MixerSoundSource source, final int offset, final float left, final float right, final boolean virtual) {
+        final int frames = this.frames - offset;
+        int crossfade = source.getCrossfade();
+        if (crossfade > 0 && source.hasNext()) {
+            long remaining = source.remaining();
+            if (remaining - crossfade < frames) {
+                int start = (int) Math.max(0, remaining - crossfade);
+                int overlap = (int) (remaining - start);
+                MixerSoundSource next = source.takeNext();
+                if (next != null) {
+                    if (overlap > 0) {
+                        source.crossfadeOut(start, overlap);
+                        next.crossfadeIn(overlap);
+                    }
+                    this.chain(next, offset + start);
+                }
+            }
+        }
+        MixerBus bus = source.getBus();
+        bus.active = true;
+        int read;
+        if (virtual) {
+            read = source.skip(frames);
+        } else {
+            bus.used = true;
+            read = source.render(bus.buffer, this.scratch, offset, frames, left, right);
+        }
+        if (read < frames) {
+            this.remove(source);
+            if (this.finishedCount == this.finished.length) {
+                this.finished = Arrays.copyOf(this.finished, this.finishedCount * 2);
+            }
+            this.finished[this.finishedCount] = source;
+            this.finishedCount++;
+            MixerSoundSource next = source.takeNext();
+            if (next != null) {
+                this.chain(next, offset + read);
+            }
+        }
+    }
+
+    /**
+     * Reorder the voice indices so the first ones are the most audible, the others are not sorted.
+     * Quick select, linear in average.
+     *
+     * @param order Voice indices to reorder.
+     * @param keys  Audibility of every voice.
+     * @param count Number of voices.
+     * @param first Number of most audible voices to put first.
+     */
+    static void select(final int[] order, final float[] keys, final int count, final int first) {
+        final int target = first - 1;
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            float pivot = keys[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[order[i]] > pivot) {
+                    i++;
+                }
+                while (keys[order[j]] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                high = j;
+            } else if (target >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue a source to start later in the current block.
+     *
+     * @param source Source to start.
+     * @param offset Frame of the block where it starts.
+     */
+    private void chain(final MixerSoundSource source, final int offset) {
+        if (this.chainedCount == this.chained.length) {
+            this.chained = Arrays.copyOf(this.chained, this.chainedCount * 2);
+            this.chainedOffset = Arrays.copyOf(this.chainedOffset, this.chainedCount * 2);
+        }
+        this.chained[this.chainedCount] = source;
+        this.chainedOffset[this.chainedCount] = offset;
+        this.chainedCount++;
+    }
+
+    /**
+     * Publish the end of play of every source which ended during the last mix, the sources without listeners are ignored.
+     *
+     * @param dispatcher Dispatcher delivering the events to the listeners.
+     */
+    void notifyFinished(final EndPlayDispatcher dispatcher) {
+        int count = this.finishedCount;
+        this.finishedCount = 0;
+        for (int i = 0; i < count; i++) {
+            EndPlayListeners listeners = this.finished[i].getEndPlayListeners();
+            this.finished[i] = null;
+            if (listeners.size() > 0) {
+                dispatcher.publish(listeners);
+            }
+        }
+    }
+
+    /**
+     * Stop all playing sources, listeners are not notified.
+     */
+    void stopAll() {
+        while (this.activeCount > 0) {
+            this.remove(this.active[this.activeCount - 1]);
+        }
+    }
+
+    /**
+     * Compute the attenuation for a distance: inverse distance, with a linear fade to silence at the max distance.
+     *
+     * @param distance Distance between the source and the listener.
+     *
+     * @return The attenuation factor, between 0 and 1.
+     */
+    float attenuation(final float distance) {
+        if (distance >= this.maxDistance) {
+            return 0f;
+        }
+        return REFERENCE_DISTANCE / Math.max(distance, REFERENCE_DISTANCE) * (1f - distance / this.maxDistance);
+    }
+
+    void setMaxDistance(final float maxDistance) {
+        if (maxDistance <= 0) {
+            throw new IllegalArgumentException("Max distance must be positive.");
+        }
+        if (this.defer(MAX_DISTANCE, null, null, maxDistance, 0, 0, 0)) {
+            return;
+        }
+        this.maxDistance = maxDistance;
+        for (int i = 0; i < this.activeCount; i++) {
+            if (this.active[i].gridCell != -1) {
+                this.grid.remove(this.active[i]);
+            }
+        }
+        this.grid.setCellSize(maxDistance);
+        for (int i = 0; i < this.activeCount; i++) {
+            if (this.spatial[i]) {
+                this.grid.insert(this.active[i]);
+            }
+        }
+    }
+
+    /**
+     * Convert a duration to a number of frames.
+     *
+     * @param milliseconds Duration to convert.
+     *
+     * @return The number of frames played during that duration, at least 0.
+     */
+    int toFrames(final long milliseconds) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, milliseconds) * this.sampleRate / 1000);
+    }
+
+    void setMaxVoices(final int maxVoices) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("Max voices must be at least 1.");
+        }
+        if (this.defer(MAX_VOICES, null, null, 0, 0, 0, maxVoices)) {
+            return;
+        }
+        this.maxVoices = maxVoices;
+    }
+
+    /**
+     * Set the thread mixing the blocks, state changes requested from other threads are then queued.
+     * When removing the audio thread, it must be stopped first, the commands still queued are executed by the calling thread.
+     *
+     * @param queue  Queue receiving the commands, null to remove the audio thread.
+     * @param thread Audio thread, null to remove it.
+     */
+    void setAudioThread(final CommandQueue queue, final Thread thread) {
+        CommandQueue previous = this.commands;
+        this.audioThread = thread;
+        this.commands = queue;
+        if (queue == null && previous != null) {
+            previous.drain(this, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * @return true if a state change requested by the current thread would be queued for the audio thread.
+     */
+    boolean isQueuing() {
+        return this.commands != null && Thread.currentThread() != this.audioThread;
+    }
+
+    /**
+     * @return true if the blocks are mixed by an audio thread.
+     */
+    boolean isThreaded() {
+        return this.commands != null;
+    }
+
+    /**
+     * Execute the commands queued for the audio thread, only called by the audio thread.
+     *
+     * @return The number of executed commands.
+     */
+    int drain() {
+        CommandQueue queue = this.commands;
+        return queue == null ? 0 : queue.drain(this, queue.capacity());
+    }
+
+    /**
+     * Queue a command if it must be executed by the audio thread.
+     *
+     * @param operation Command code.
+     * @param target    Source the command applies to, null for mixer commands.
+     * @param argument  Object argument.
+     * @param a         First float argument.
+     * @param b         Second float argument.
+     * @param c         Third float argument.
+     * @param value     Long argument.
+     *
+     * @return true if the command was queued, false if the caller must execute it immediately.
+     */
+    boolean defer(final int operation, final Object target, final Object argument, final float a, final float b, final float c, final long value) {
+        CommandQueue queue = this.commands;
+        if (queue == null || Thread.currentThread() == this.audioThread) {
+            return false;
+        }
+        queue.push(operation, target, argument, a, b, c, value);
+        return true;
+    }
+
+    @Override
+    public void execute(final int operation, final Object target, final Object argument, final float a, final float b, final float c, final long value) {
+        MixerSoundSource source = target instanceof MixerSoundSource s ? s : null;
+        switch (operation) {
+            case PLAY -> source.play();
+            case STOP -> source.stop();
+            case GAIN -> source.setGain(a);
+            case FADE -> source.fadeTo(a, value);
+            case POSITION -> source.setPosition(a, b, c);
+            case VELOCITY -> source.setVelocity(a, b, c);
+            case DIRECTION -> source.setDirection(a, b, c);
+            case LOOP -> source.loop();
+            case REWIND -> source.rewind();
+            case DELETE -> source.delete();
+            case LISTENER_POSITION -> this.setListenerPosition(a, b, c);
+            case LISTENER_DIRECTION -> this.setListenerDirection(a, c);
+            case MAX_DISTANCE -> this.setMaxDistance(a);
+            case MAX_VOICES -> this.setMaxVoices((int) value);
+            case PITCH -> source.setPitch(a);
+            case BUS -> this.addBus((MixerBus) argument);
+            case ONE_SHOT -> this.playOneShot((String) target, (CachedSample) argument, a, b, c, Float.intBitsToFloat((int) value));
+            default -> throw new IllegalArgumentException("Unknown audio command: " + operation);
+        }
+    }
+
+    SpatialGrid getGrid() {
+        return this.grid;
+    }
+
+    int getRealCount() {
+        return this.realCount;
+    }
+
+    int getVirtualCount() {
+        return this.virtualCount;
+    }
+
+    float[] getBuffer() {
+        return this.buffer;
+    }
+
+    int getFrames() {
+        return this.frames;
+    }
+
+    int getActiveCount() {
+        return this.activeCount;
+    }
+}
@@ -0,0 +1,732 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.common.file.FileResource;
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.common.geometry.Point3D;
+import be.yildizgames.module.audio.AudioBus;
+import be.yildizgames.module.audio.AudioEngineStats;
+import be.yildizgames.module.audio.AudioFile;
+import be.yildizgames.module.audio.BaseAudioEngine;
+import be.yildizgames.module.audio.SoundCreationException;
+import be.yildizgames.module.audio.SoundSource;
+import be.yildizgames.module.audio.jfr.SlowUpdateEvent;
+import be.yildizgames.module.audio.jfr.SoundCreationEvent;
+import be.yildizgames.module.audio.jfr.SoundDecodeEvent;
+import be.yildizgames.module.audio.jfr.UnderrunEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pure java audio engine implementation, mixing all playing sources in float buffers.
+ * Every call to update mixes one block and sends it to the output.
+ *
+ * @author Grégory Van den Borre
+ */
+public class MixerAudioEngine extends BaseAudioEngine {
+
+    /**
+     * Default number of frames per second.
+     */
+    static final int DEFAULT_SAMPLE_RATE = 48000;
+
+    /**
+     * Default number of frames mixed by every update.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /**
+     * Default maximum number of decoded files kept in cache.
+     */
+    static final int DEFAULT_CACHE_CAPACITY = 64;
+
+    /**
+     * Default maximum number of sources really mixed.
+     */
+    static final int DEFAULT_MAX_VOICES = 64;
+
+    /**
+     * Number of frames decoded at once by a stream.
+     */
+    static final int STREAM_CHUNK_SIZE = 8192;
+
+    /**
+     * Number of decoded chunks kept ahead by a stream.
+     */
+    static final int STREAM_CHUNK_COUNT = 4;
+
+    /**
+     * Number of voices of the one shot pool.
+     */
+    static final int ONE_SHOT_VOICES = 32;
+
+    /**
+     * Number of commands the audio thread queue can hold.
+     */
+    static final int COMMAND_QUEUE_SIZE = 4096;
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER = System.getLogger(MixerAudioEngine.class.toString());
+
+    /**
+     * Paths where audio files are looked for.
+     */
+    private final List<ResourcePath> resourcePaths = new CopyOnWriteArrayList<>();
+
+    /**
+     * Mixer for all playing sources.
+     */
+    private final Mixer mixer;
+
+    /**
+     * Decoded samples shared by all sources created by this engine.
+     */
+    private final SampleCache cache = new SampleCache(DEFAULT_CACHE_CAPACITY, this::decode);
+
+    /**
+     * Activity counters.
+     */
+    private final MixerStats stats = new MixerStats();
+
+    /**
+     * Wave files mapped in memory, by path.
+     */
+    private final Map<Path, MappedWave> mapped = new ConcurrentHashMap<>();
+
+    /**
+     * Mixer side of the buses used by the sources.
+     */
+    private final Map<AudioBus, MixerBus> buses = new ConcurrentHashMap<>();
+
+    /**
+     * Cache entries of the files played as one shots, by name, so a one shot does not resolve its file again.
+     * An entry is removed once its file is evicted from the cache.
+     */
+    private final Map<String, CachedSample> oneShotSamples = new ConcurrentHashMap<>();
+
+    /**
+     * Voices playing the one shot sounds.
+     */
+    private final OneShotPool oneShots;
+
+    /**
+     * Refill the playing streams.
+     */
+    private final StreamFeeder feeder = new StreamFeeder();
+
+    /**
+     * Number of frames per second of the output.
+     */
+    private final int sampleRate;
+
+    /**
+     * Destination of the mixed blocks.
+     */
+    private volatile MixerOutput output = MixerOutput.discard();
+
+    /**
+     * Thread mixing the blocks, null when they are mixed by update.
+     */
+    private volatile Thread audioThread;
+
+    /**
+     * Create a new engine.
+     *
+     * @param sampleRate Number of frames per second of the output, must be at least 1.
+     * @param blockSize  Number of frames mixed by every update, must be at least 1.
+     */
+    MixerAudioEngine(final int sampleRate, final int blockSize) {
+        super();
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Sample rate must be at least 1.");
+        }
+        this.sampleRate = sampleRate;
+        this.mixer = new Mixer(sampleRate, blockSize, this.getMasterBus());
+        this.mixer.setMaxVoices(DEFAULT_MAX_VOICES);
+        this.buses.put(this.getMasterBus(), this.mixer.getMaster());
+        this.oneShots = new OneShotPool(this.mixer, this.cache, this.mixerBus(this.getBus(AudioBus.SFX)), ONE_SHOT_VOICES);
+        this.mixer.setOneShotPool(this.oneShots);
+        this.cache.addEvictionListener((file, size) -> this.oneShotSamples.values().removeIf(s -> s.file.equals(file)));
+    }
+
+    /**
+     * Set the destination of the mixed blocks.
+     *
+     * @param output Output to use, cannot be null.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setOutput(final MixerOutput output) {
+        Objects.requireNonNull(output);
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Set the distance from the listener where a positioned source becomes silent.
+     *
+     * @param distance Distance to use, must be positive.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setMaxDistance(final float distance) {
+        this.mixer.setMaxDistance(distance);
+        return this;
+    }
+
+    /**
+     * Set the maximum number of sources really mixed, the mixing cost depends on it and not on the number of playing sources.
+     * When more sources are playing, the most audible ones (gain multiplied by distance attenuation) are mixed,
+     * the others become virtual voices: they keep advancing silently and are mixed again once they rank among the most audible.
+     *
+     * @param voices Maximum number of mixed sources, must be at least 1.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setMaxVoices(final int voices) {
+        this.mixer.setMaxVoices(voices);
+        return this;
+    }
+
+    /**
+     * @return The number of playing sources which were not mixed during the last update, because of the voice limit.
+     */
+    public final int getVirtualVoiceCount() {
+        return this.mixer.getVirtualCount();
+    }
+
+    /**
+     * Set the maximum number of decoded files kept in cache, the least recently used are dropped first.
+     *
+     * @param capacity Maximum number of files, 0 to disable the cache.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setCacheCapacity(final int capacity) {
+        this.cache.setCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * Set the maximum memory used by the decoded files kept in cache.
+     * When it is exceeded, the files which are not playing are evicted, lowest priority first,
+     * then least recently used first. Evicted files are decoded again the next time they are played.
+     *
+     * @param bytes Memory budget, in bytes.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setMemoryBudget(final long bytes) {
+        this.cache.setBudget(bytes);
+        return this;
+    }
+
+    /**
+     * Set the eviction priority of a file, files with a lower priority are evicted first.
+     *
+     * @param file     File to set the priority, cannot be null.
+     * @param priority Priority to set, 0 by default.
+     *
+     * @return This object for chaining, never null.
+     *
+     * @throws SoundCreationException If the file cannot be found.
+     */
+    public final MixerAudioEngine setPriority(final String file, final int priority) {
+        this.cache.setPriority(this.resolve(file), priority);
+        return this;
+    }
+
+    /**
+     * Add a listener to be notified when a decoded file is evicted from the cache.
+     *
+     * @param listener Listener to add, cannot be null.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine addEvictionListener(final SampleEvictionListener listener) {
+        this.cache.addEvictionListener(listener);
+        return this;
+    }
+
+    /**
+     * @return The memory used by the decoded files kept in cache, in bytes.
+     */
+    public final long getResidentBytes() {
+        return this.cache.getResidentBytes();
+    }
+
+    /**
+     * @return The size of the wave files mapped in memory, in bytes, they use no heap.
+     */
+    public final long getMappedBytes() {
+        long total = 0;
+        for (MappedWave wave : this.mapped.values()) {
+            total += wave.size();
+        }
+        return total;
+    }
+
+    /**
+     * Choose how the playing streams are refilled: by update, or by a dedicated thread.
+     * A dedicated thread keeps the decoding cost out of update.
+     *
+     * @param enabled true to use a dedicated thread, false to refill the streams in update.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final MixerAudioEngine setStreamingThread(final boolean enabled) {
+        if (enabled) {
+            this.feeder.start();
+        } else {
+            this.feeder.stop();
+        }
+        return this;
+    }
+
+    /**
+     * Choose how the blocks are mixed: by update, or by a dedicated audio thread.
+     * With an audio thread, the source calls and update only queue small commands in a lock free queue,
+     * the audio thread executes them before mixing every block, paced by the sample rate,
+     * so the calling thread never waits for the mixing and the audio thread never waits for the caller.
+     * The source states, like isPlaying, are then updated once the audio thread executed the commands.
+     * The end of play listeners are still called during update, or on the end play executor.
+     *
+     * @param enabled true to use a dedicated audio thread, false to mix in update.
+     *
+     * @return This object for chaining, never null.
+     */
+    public final synchronized MixerAudioEngine setAudioThread(final boolean enabled) {
+        Thread thread = this.audioThread;
+        if (enabled && thread == null) {
+            thread = Thread.ofPlatform().daemon().name("audio-mixer").priority(Thread.MAX_PRIORITY).unstarted(this::runAudio);
+            this.audioThread = thread;
+            this.mixer.setAudioThread(new CommandQueue(COMMAND_QUEUE_SIZE), thread);
+            thread.start();
+        } else if (!enabled && thread != null) {
+            this.audioThread = null;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.mixer.setAudioThread(null, null);
+        }
+        return this;
+    }
+
+    /**
+     * @return The destination of the mixed blocks.
+     */
+    final MixerOutput getOutput() {
+        return this.output;
+    }
+
+    /**
+     * @return true if the blocks are mixed or the streams refilled by a dedicated thread.
+     */
+    final boolean isThreaded() {
+        return this.mixer.isThreaded() || this.feeder.isThreaded();
+    }
+
+    /**
+     * @return The number of frames per second of the output.
+     */
+    public final int getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * @return The number of frames mixed by every update.
+     */
+    public final int getBlockSize() {
+        return this.mixer.getFrames();
+    }
+
+    /**
+     * Build a SoundSource from a file, played on the sfx bus.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     *
+     * @throws SoundCreationException If the file cannot be found or is not a supported wave file.
+     */
+    @Override
+    public final SoundSource createSound(final String file) {
+        return this.createSound(file, this.getBus(AudioBus.SFX));
+    }
+
+    @Override
+    public final SoundSource createSound(final String file, final AudioBus bus) {
+        MixerBus target = this.mixerBus(bus);
+        SoundCreationEvent event = new SoundCreationEvent();
+        event.begin();
+        try {
+            CachedSample sample = this.cache.get(this.resolve(file));
+            event.succeeded(file, "decoded", sample.size);
+            return new MixerSoundSource(this.mixer, new BufferReader(this.cache, sample), file, target);
+        } catch (SoundCreationException e) {
+            event.failed(file, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Build a sound source from an audio file, played on the sfx bus.
+     * Physical wave files are mapped in memory and played from the mapping, without decoding them in the heap,
+     * the mapping is shared by all sources of the same file. Other files are loaded as with createSound(String).
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     *
+     * @throws SoundCreationException If the file cannot be found or is not a supported wave file.
+     */
+    @Override
+    public final SoundSource createSound(final AudioFile file) {
+        return this.createSound(file, this.getBus(AudioBus.SFX));
+    }
+
+    @Override
+    public final SoundSource createSound(final AudioFile file, final AudioBus bus) {
+        Objects.requireNonNull(file);
+        if (!file.isFile()) {
+            return this.createSound(file.name, bus);
+        }
+        MixerBus target = this.mixerBus(bus);
+        SoundCreationEvent event = new SoundCreationEvent();
+        event.begin();
+        try {
+            MappedWave wave = this.mapped.computeIfAbsent(this.resolve(file.name), MappedWave::map);
+            event.succeeded(file.name, "mapped", wave.size());
+            return new MixerSoundSource(this.mixer, this.convert(new MappedReader(wave), wave.format.sampleRate), file.name, target);
+        } catch (SoundCreationException e) {
+            event.failed(file.name, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Play a short positioned sound on the sfx bus, with a voice of a preallocated pool.
+     * The voice goes back to the pool once the sound ends, when all the voices are playing, the oldest one is reused.
+     * Once the file has been played, the next calls for it do not allocate.
+     *
+     * @param file File to play, cannot be null.
+     * @param x    Position x.
+     * @param y    Position y.
+     * @param z    Position z.
+     * @param gain Gain of the sound.
+     *
+     * @throws SoundCreationException If the file cannot be found or is not a supported wave file.
+     */
+    @Override
+    public final void playOneShot(final String file, final float x, final float y, final float z, final float gain) {
+        CachedSample sample = this.oneShotSamples.get(file);
+        if (sample == null) {
+            sample = this.cache.get(this.resolve(file));
+            this.oneShotSamples.put(file, sample);
+        }
+        while (sample.acquire() == null) {
+            sample = this.cache.get(sample.file);
+            this.oneShotSamples.put(file, sample);
+        }
+        this.mixer.playOneShot(file, sample, x, y, z, gain);
+    }
+
+    /**
+     * Provide a snapshot of the engine activity, the underruns are the streams found empty while mixing,
+     * and the blocks the audio thread mixed after their deadline.
+     *
+     * @return The snapshot, never null.
+     */
+    @Override
+    public final AudioEngineStats getStats() {
+        return this.stats.snapshot(this.mixer, this.cache, this.feeder);
+    }
+
+    /**
+     * Build a source decoding the file progressively while it is played, on the music bus.
+     *
+     * @param file File to load, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    @Override
+    public final SoundSource createStream(final String file) {
+        return this.createStream(file, this.getBus(AudioBus.MUSIC));
+    }
+
+    /**
+     * Build a source decoding the file progressively while it is played, only a few chunks are kept in memory.
+     * If the file was preloaded and is still in the sample cache, it is played from the cache instead.
+     *
+     * @param file File to load, cannot be null.
+     * @param bus  Bus to play the source on, cannot be null.
+     *
+     * @return The built SoundSource, never null.
+     */
+    @Override
+    public final SoundSource createStream(final String file, final AudioBus bus) {
+        MixerBus target = this.mixerBus(bus);
+        SoundCreationEvent event = new SoundCreationEvent();
+        event.begin();
+        try {
+            Path path = this.resolve(file);
+            CachedSample preloaded = this.cache.find(path);
+            if (preloaded != null) {
+                event.succeeded(file, "decoded", preloaded.size);
+                return new MixerSoundSource(this.mixer, new BufferReader(this.cache, preloaded), file, target);
+            }
+            StreamReader reader = new StreamReader(path, this.feeder, STREAM_CHUNK_SIZE, STREAM_CHUNK_COUNT);
+            event.succeeded(file, "stream", 0);
+            return new MixerSoundSource(this.mixer, this.convert(reader, reader.sampleRate()), file, target);
+        } catch (SoundCreationException e) {
+            event.failed(file, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Physical wave files are mapped and their pages loaded in memory, other files are decoded in the sample cache.
+     * A decoded file is evicted as any other cached buffer once the cache limits are reached.
+     *
+     * @param file File to load, never null.
+     */
+    @Override
+    protected final void preloadImpl(final AudioFile file) {
+        if (file.isFile()) {
+            this.mapped.computeIfAbsent(this.resolve(file.name), MappedWave::map).load();
+        } else {
+            this.preloadImpl(file.name);
+        }
+    }
+
+    /**
+     * The file is decoded in the sample cache, and evicted as any other cached buffer once the cache limits are reached.
+     *
+     * @param file File to load, never null.
+     */
+    @Override
+    protected final void preloadImpl(final String file) {
+        this.cache.get(this.resolve(file));
+    }
+
+    @Override
+    public final MixerAudioEngine addResourcePath(final ResourcePath path) {
+        Objects.requireNonNull(path);
+        if (path.getType() == FileResource.FileType.VFS) {
+            LOGGER.log(System.Logger.Level.WARNING, "VFS resources are not supported by the mixer: {0}", path.getName());
+        }
+        this.resourcePaths.add(path);
+        return this;
+    }
+
+    /**
+     * Mix one block of all playing sources, send it to the output, and notify the sources which reached their end.
+     * The playing streams are then refilled, unless a dedicated thread does it.
+     */
+    @Override
+    public final void update() {
+        SlowUpdateEvent event = new SlowUpdateEvent();
+        event.begin();
+        Point3D position = this.listener.getAbsolutePosition();
+        Point3D direction = this.listener.getAbsoluteDirection();
+        this.mixer.setListenerPosition(position.x, position.y, position.z);
+        this.mixer.setListenerDirection(direction.x, direction.z);
+        if (!this.mixer.isThreaded()) {
+            this.mixBlock();
+        }
+        this.getEndPlayDispatcher().dispatch();
+        if (!this.feeder.isThreaded()) {
+            this.feeder.feed();
+        }
+        this.cache.enforceLimits();
+        event.updated(this.mixer.getRealCount(), this.mixer.getVirtualCount());
+    }
+
+    @Override
+    protected final void closeImpl() {
+        this.setAudioThread(false);
+        this.feeder.stop();
+        this.mixer.stopAll();
+        this.cache.clear();
+        this.mapped.clear();
+    }
+
+    /**
+     * Mix one block, send it to the output and publish the end of the sources which ended.
+     */
+    private void mixBlock() {
+        long start = System.nanoTime();
+        this.mixer.mix();
+        this.stats.recordMix(System.nanoTime() - start);
+        this.output.write(this.mixer.getBuffer(), this.mixer.getFrames());
+        this.mixer.notifyFinished(this.getEndPlayDispatcher());
+    }
+
+    /**
+     * Audio thread loop, mix a block every block duration, catching up if late.
+     */
+    private void runAudio() {
+        final long period = (long) this.getBlockSize() * 1_000_000_000L / this.sampleRate;
+        long deadline = System.nanoTime();
+        while (this.audioThread == Thread.currentThread()) {
+            try {
+                this.mixer.drain();
+                this.mixBlock();
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Error in audio thread:", e);
+            }
+            deadline += period;
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                this.stats.recordLateBlock();
+                UnderrunEvent.lateBlock(-wait);
+                if (wait < -4 * period) {
+                    deadline = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    /**
+     * Provide the mixer side of a bus, added to the mixer with its parents the first time it is used.
+     *
+     * @param bus Bus of this engine, cannot be null.
+     *
+     * @return The mixer bus, never null.
+     *
+     * @throws IllegalArgumentException If the bus is not from this engine.
+     */
+    private MixerBus mixerBus(final AudioBus bus) {
+        Objects.requireNonNull(bus);
+        MixerBus result = this.buses.get(bus);
+        if (result != null) {
+            return result;
+        }
+        if (bus.getParent() == null) {
+            throw new IllegalArgumentException("Audio bus not from this engine: " + bus);
+        }
+        MixerBus created = new MixerBus(bus, this.mixerBus(bus.getParent()), this.getBlockSize());
+        synchronized (this.buses) {
+            result = this.buses.putIfAbsent(bus, created);
+            if (result == null) {
+                this.mixer.addBus(created);
+                return created;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convert the frames of a reader to the engine rate while reading, if they have a different rate.
+     *
+     * @param reader Reader to convert.
+     * @param rate   Rate of the reader frames.
+     *
+     * @return The reader itself if no conversion is needed, a converting reader otherwise.
+     */
+    private FrameReader convert(final FrameReader reader, final int rate) {
+        return rate == this.sampleRate ? reader : new ResamplingReader(reader, rate, this.sampleRate);
+    }
+
+    /**
+     * Decode a file, convert it to the engine rate with the windowed sinc resampler, and record the decoding time.
+     *
+     * @param file File to decode.
+     *
+     * @return The decoded samples.
+     */
+    private SampleBuffer decode(final Path file) {
+        SoundDecodeEvent event = new SoundDecodeEvent();
+        event.begin();
+        long start = System.nanoTime();
+        SampleBuffer result = WaveDecoder.decode(file);
+        if (result.sampleRate != this.sampleRate) {
+            result = SincResampler.forRates(result.sampleRate, this.sampleRate).convert(result, this.sampleRate);
+        }
+        this.stats.recordDecode(System.nanoTime() - start);
+        event.decoded(file.toString(), result.size());
+        return result;
+    }
+
+    /**
+     * @return The voices playing the one shot sounds.
+     */
+    final OneShotPool getOneShotPool() {
+        return this.oneShots;
+    }
+
+    /**
+     * @return The number of files played as one shots and still in cache.
+     */
+    final int getOneShotFileCount() {
+        return this.oneShotSamples.size();
+    }
+
+    /**
+     * @return The decoded samples cache.
+     */
+    final SampleCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Find a file in the registered resource paths, or from the working directory.
+     *
+     * @param file File to find, cannot be null.
+     *
+     * @return The file path, never null.
+     *
+     * @throws SoundCreationException If the file cannot be found.
+     */
+    final Path resolve(final String file) {
+        Objects.requireNonNull(file);
+        for (ResourcePath resourcePath : this.resourcePaths) {
+            if (resourcePath.getType() != FileResource.FileType.VFS && resourcePath.exists(file)) {
+                return Paths.get(resourcePath.getPath(), file);
+            }
+        }
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        throw new SoundCreationException("Audio file not found: " + file);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.AudioBus;
+
+import java.util.Arrays;
+
+/**
+ * Mixer side of an audio bus: the submix of its sources and children, and the state used for the current block.
+ * Only used by the thread mixing the blocks.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MixerBus {
+
+    /**
+     * Bus providing the gain, mute and pause, null for a bus always at unity gain.
+     */
+    final AudioBus bus;
+
+    /**
+     * Bus this one is mixed into, null for the master bus.
+     */
+    final MixerBus parent;
+
+    /**
+     * Stereo interleaved submix.
+     */
+    final float[] buffer;
+
+    /**
+     * Gain of this bus only for the current block, 0 if muted.
+     */
+    float gain;
+
+    /**
+     * Gain applied at the end of the previous block, the submix gain ramps from it to avoid clicks.
+     */
+    float applied = 1f;
+
+    /**
+     * Highest gain of this bus during the current block, multiplied by the same for its parents,
+     * a source is inaudible only if it is 0.
+     */
+    float effective = 1f;
+
+    /**
+     * True if this bus or one of its parents is paused for the current block.
+     */
+    boolean paused;
+
+    /**
+     * True if a source or a child was mixed in the submix during the current block.
+     */
+    boolean used;
+
+    /**
+     * True if a source of this bus or of a child was playing during the current block, even as a virtual voice.
+     */
+    boolean active;
+
+    /**
+     * Full constructor.
+     *
+     * @param bus    Bus providing the gain, mute and pause, null for a bus always at unity gain.
+     * @param parent Bus this one is mixed into, null for the master bus.
+     * @param frames Number of frames mixed for every block.
+     */
+    MixerBus(final AudioBus bus, final MixerBus parent, final int frames) {
+        super();
+        this.bus = bus;
+        this.parent = parent;
+        this.buffer = new float[frames * 2];
+    }
+
+    /**
+     * Read the bus state for the next block and clear the submix, the parent must be prepared first.
+     * The gain changes of a bus with playing sources are ramped over the block, even to or from silence.
+     */
+    void prepare() {
+        float local = 1f;
+        boolean pause = false;
+        if (this.bus != null) {
+            local = this.bus.isMuted() ? 0f : this.bus.getGain();
+            pause = this.bus.isPaused();
+        }
+        if (!this.active) {
+            //Nothing was heard from this bus, the new gain can be used without ramp.
+            this.applied = local;
+        }
+        this.active = false;
+        this.gain = local;
+        float highest = Math.max(local, this.applied);
+        this.effective = this.parent == null ? highest : highest * this.parent.effective;
+        this.paused = pause || this.parent != null && this.parent.paused;
+        if (this.used) {
+            Arrays.fill(this.buffer, 0f);
+            this.used = false;
+        }
+    }
+
+    /**
+     * Accumulate the submix into a buffer, with a gain ramp if the gain changed since the previous block.
+     *
+     * @param target Stereo interleaved buffer to accumulate into.
+     * @param frames Number of frames to accumulate.
+     */
+    void mixInto(final float[] target, final int frames) {
+        if (this.applied == this.gain) {
+            MixKernel.accumulate(this.buffer, 0, 2, target, 0, frames, this.gain, this.gain);
+        } else {
+            float step = (this.gain - this.applied) / frames;
+            MixKernel.accumulateRamp(this.buffer, 0, 2, target, 0, frames, 1f, 1f, this.applied, step);
+            this.applied = this.gain;
+        }
+    }
+}
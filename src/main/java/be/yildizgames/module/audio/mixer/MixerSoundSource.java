@@ -0,0 +1,750 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.common.geometry.Point3D;
+import be.yildizgames.module.audio.EndPlayListener;
+import be.yildizgames.module.audio.EndPlayListeners;
+import be.yildizgames.module.audio.SoundSource;
+
+import java.util.Objects;
+
+/**
+ * Sound source played by the software mixer, its frames are provided by a reader,
+ * from a cached decoded buffer or streamed from the file.
+ * This class is not thread safe, it must be used from the thread updating the engine.
+ * When the engine uses an audio thread, the state changes are queued and applied by the audio thread before its next mix.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MixerSoundSource implements SoundSource {
+
+    /**
+     * Mixer playing this source.
+     */
+    private final Mixer mixer;
+
+    /**
+     * Provide the frames to play, wrapped in the resampler once the source is pitched.
+     */
+    private FrameReader reader;
+
+    /**
+     * Reader converting the frames rate, null until a rate conversion or a pitch is needed.
+     */
+    private ResamplingReader resampler;
+
+    private float pitch = 1f;
+
+    /**
+     * Name of the played file.
+     */
+    private String name;
+
+    /**
+     * Listeners to notify when the playback reach the end of the buffer, reused for every play.
+     */
+    private final EndPlayListeners listeners = new EndPlayListeners();
+
+    /**
+     * Gain applied to the samples, updated frame by frame during a fade.
+     */
+    private float gain = 1f;
+
+    /**
+     * Gain reached at the end of the current fade.
+     */
+    private float fadeTarget;
+
+    /**
+     * Gain change between two frames during the current fade.
+     */
+    private float fadeStep;
+
+    /**
+     * Number of frames to play before the fade begins.
+     */
+    private int fadeDelay;
+
+    /**
+     * Number of frames left in the current fade, 0 when not fading.
+     */
+    private int fadeFrames;
+
+    /**
+     * True while fading out because the next source is fading in, the gain is restored once stopped.
+     */
+    private boolean crossfading;
+
+    /**
+     * Gain to restore after a crossfade.
+     */
+    private float crossfadeGain;
+
+    /**
+     * Number of frames where this source and the next one overlap.
+     */
+    private volatile int crossfade;
+
+    /**
+     * Position in the 3d space, copied in the mixer voice tables while playing.
+     */
+    private float x;
+
+    private float y;
+
+    private float z;
+
+    /**
+     * Velocity in the 3d space, copied in the mixer voice tables while playing.
+     */
+    private float velocityX;
+
+    private float velocityY;
+
+    private float velocityZ;
+
+    /**
+     * Normalized emission direction, zero if omnidirectional, copied in the mixer voice tables while playing.
+     */
+    private float directionX;
+
+    private float directionY;
+
+    private float directionZ;
+
+    /**
+     * True once a position has been set, a source without position is played as it is, without attenuation.
+     */
+    private boolean positioned;
+
+    private boolean deleted;
+
+    /**
+     * True when the reader has been started and not stopped yet.
+     */
+    private boolean started;
+
+    /**
+     * Source to start right after this one ends, can be set from any thread.
+     */
+    private volatile MixerSoundSource next;
+
+    /**
+     * Index of this source in the mixer active list, -1 when not playing.
+     */
+    volatile int activeIndex = -1;
+
+    /**
+     * Cell of the spatial grid containing this source, -1 when not in the grid.
+     */
+    int gridCell = -1;
+
+    /**
+     * Index of this source in its grid cell.
+     */
+    int gridSlot;
+
+    /**
+     * Mix stamp when this source was last found close to the listener.
+     */
+    int nearStamp;
+
+    /**
+     * True if this source was audible but not mixed during the last mix, because of the voice limit.
+     */
+    boolean stolen;
+
+    /**
+     * Bus this source is mixed into.
+     */
+    private final MixerBus bus;
+
+    /**
+     * Pool this source is given back to once stopped, null if it is not a one shot voice.
+     */
+    OneShotPool pool;
+
+    /**
+     * Index of this source in its pool.
+     */
+    int poolIndex;
+
+    /**
+     * Create a source played on the master bus.
+     *
+     * @param mixer  Mixer playing this source.
+     * @param reader Provide the frames to play.
+     * @param name   Name of the played file, used in the recorded events.
+     */
+    MixerSoundSource(final Mixer mixer, final FrameReader reader, final String name) {
+        this(mixer, reader, name, mixer.getMaster());
+    }
+
+    /**
+     * Full constructor.
+     *
+     * @param mixer  Mixer playing this source.
+     * @param reader Provide the frames to play.
+     * @param name   Name of the played file, used in the recorded events.
+     * @param bus    Bus this source is mixed into.
+     */
+    MixerSoundSource(final Mixer mixer, final FrameReader reader, final String name, final MixerBus bus) {
+        super();
+        this.mixer = mixer;
+        this.reader = reader;
+        this.resampler = reader instanceof ResamplingReader r ? r : null;
+        this.name = name;
+        this.bus = bus;
+    }
+
+    @Override
+    public SoundSource play() {
+        if (this.mixer.isQueuing()) {
+            this.reader.prepare();
+        }
+        if (this.mixer.defer(Mixer.PLAY, this, null, 0, 0, 0, 0)) {
+            return this;
+        }
+        if (this.deleted) {
+            //Release what was prepared for a play queued after the deletion.
+            this.reader.close();
+            return this;
+        }
+        this.reader.rewind();
+        if (!this.started) {
+            this.reader.start();
+            this.started = true;
+        }
+        this.mixer.start(this);
+        return this;
+    }
+
+    /**
+     * Start the next source on the frame following the end of this one.
+     * The next source is prepared immediately, its first frames are decoded by the calling thread.
+     * This method can be called from any thread, as long as the next source is not used meanwhile.
+     *
+     * @param next Source to start once this one ends, cannot be null.
+     *
+     * @return This object for chaining, never null.
+     */
+    @Override
+    public SoundSource chain(final SoundSource next) {
+        return this.chain(next, 0);
+    }
+
+    /**
+     * Start the next source before the end of this one, the overlapping frames are mixed with linear gain ramps:
+     * this source fades to silence on its last frame while the next one fades from silence to its gain.
+     * If this source has less frames left than the duration, the overlap is shortened accordingly.
+     * This method can be called from any thread, as long as the next source is not used meanwhile.
+     *
+     * @param next         Source to start before this one ends, cannot be null.
+     * @param milliseconds Duration of the overlap, 0 to start the next source on the frame following the end of this one.
+     *
+     * @return This object for chaining, never null.
+     */
+    @Override
+    public SoundSource chain(final SoundSource next, final long milliseconds) {
+        Objects.requireNonNull(next);
+        if (next instanceof MixerSoundSource source && source.mixer == this.mixer) {
+            if (!source.deleted && source.activeIndex == -1) {
+                source.reader.rewind();
+                if (!source.started) {
+                    source.reader.start();
+                    source.started = true;
+                }
+                this.crossfade = this.mixer.toFrames(milliseconds);
+                this.next = source;
+            }
+        } else {
+            SoundSource.super.chain(next);
+        }
+        return this;
+    }
+
+    @Override
+    public SoundSource addEndPlayListener(final EndPlayListener listener) {
+        this.listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public SoundSource stop() {
+        if (this.mixer.defer(Mixer.STOP, this, null, 0, 0, 0, 0)) {
+            return this;
+        }
+        if (this.activeIndex != -1) {
+            this.mixer.remove(this);
+        } else if (this.started) {
+            this.stopped();
+        }
+        this.reader.rewind();
+        return this;
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return this.activeIndex != -1;
+    }
+
+    @Override
+    public SoundSource setPosition(final Point3D pos) {
+        Objects.requireNonNull(pos);
+        return this.setPosition(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public SoundSource setPosition(final float x, final float y, final float z) {
+        if (this.mixer.defer(Mixer.POSITION, this, null, x, y, z, 0)) {
+            return this;
+        }
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.positioned = true;
+        if (this.activeIndex != -1) {
+            this.mixer.moved(this);
+        }
+        return this;
+    }
+
+    @Override
+    public SoundSource setVelocity(final float x, final float y, final float z) {
+        if (this.mixer.defer(Mixer.VELOCITY, this, null, x, y, z, 0)) {
+            return this;
+        }
+        this.velocityX = x;
+        this.velocityY = y;
+        this.velocityZ = z;
+        if (this.activeIndex != -1) {
+            this.mixer.updateVelocity(this);
+        }
+        return this;
+    }
+
+    /**
+     * Change the playback speed by reading the frames at a fractional position, the interpolation quality
+     * is chosen by the mixer for every block, depending on how audible the source is.
+     *
+     * @param pitch Speed factor, 1 for the original speed, 2 for one octave higher, must be positive.
+     *
+     * @return This object for chaining, never null.
+     */
+    @Override
+    public SoundSource setPitch(final float pitch) {
+        if (!(pitch > 0) || Float.isInfinite(pitch)) {
+            throw new IllegalArgumentException("Pitch must be positive: " + pitch);
+        }
+        if (this.mixer.defer(Mixer.PITCH, this, null, pitch, 0, 0, 0)) {
+            return this;
+        }
+        this.pitch = pitch;
+        if (this.resampler == null) {
+            if (pitch == 1f) {
+                return this;
+            }
+            this.resampler = new ResamplingReader(this.reader, 1, 1);
+            this.reader = this.resampler;
+        }
+        this.resampler.setPitch(pitch);
+        return this;
+    }
+
+    /**
+     * Set the direction the audio is emitted to, the gain decreases down to a quarter when the listener is behind the source.
+     *
+     * @param x New direction x.
+     * @param y New direction y.
+     * @param z New direction z.
+     *
+     * @return This object for chaining, never null.
+     */
+    @Override
+    public SoundSource setDirection(final float x, final float y, final float z) {
+        if (this.mixer.defer(Mixer.DIRECTION, this, null, x, y, z, 0)) {
+            return this;
+        }
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        this.directionX = length == 0 ? 0 : x / length;
+        this.directionY = length == 0 ? 0 : y / length;
+        this.directionZ = length == 0 ? 0 : z / length;
+        if (this.activeIndex != -1) {
+            this.mixer.updateDirection(this);
+        }
+        return this;
+    }
+
+    @Override
+    public SoundSource loop() {
+        if (this.mixer.defer(Mixer.LOOP, this, null, 0, 0, 0, 0)) {
+            return this;
+        }
+        this.reader.setLooping(true);
+        return this;
+    }
+
+    @Override
+    public SoundSource rewind() {
+        if (this.mixer.defer(Mixer.REWIND, this, null, 0, 0, 0, 0)) {
+            return this;
+        }
+        this.reader.rewind();
+        return this;
+    }
+
+    @Override
+    public SoundSource setGain(final float gain) {
+        if (this.mixer.defer(Mixer.GAIN, this, null, gain, 0, 0, 0)) {
+            return this;
+        }
+        this.gain = gain;
+        this.fadeFrames = 0;
+        this.fadeDelay = 0;
+        this.crossfading = false;
+        return this;
+    }
+
+    /**
+     * Change the gain linearly on every mixed frame, starting from the next mixed block.
+     *
+     * @param gain         Gain to reach.
+     * @param milliseconds Duration of the change, 0 to set it immediately.
+     *
+     * @return This object for chaining, never null.
+     */
+    @Override
+    public SoundSource fadeTo(final float gain, final long milliseconds) {
+        if (this.mixer.defer(Mixer.FADE, this, null, gain, 0, 0, milliseconds)) {
+            return this;
+        }
+        int frames = this.mixer.toFrames(milliseconds);
+        if (frames == 0) {
+            return this.setGain(gain);
+        }
+        if (this.crossfading) {
+            this.gain = this.crossfadeGain;
+            this.crossfading = false;
+        }
+        this.fade(0, frames, gain);
+        return this;
+    }
+
+    @Override
+    public SoundSource delete() {
+        if (this.mixer.defer(Mixer.DELETE, this, null, 0, 0, 0, 0)) {
+            return this;
+        }
+        if (!this.deleted) {
+            this.stop();
+            this.deleted = true;
+            this.next = null;
+            this.reader.close();
+            this.listeners.clear();
+        }
+        return this;
+    }
+
+    float getGain() {
+        return this.gain;
+    }
+
+    /**
+     * @return The highest absolute gain this source has during the current fade, or its gain if not fading.
+     */
+    float getAudibleGain() {
+        float current = Math.abs(this.gain);
+        return this.fadeFrames > 0 ? Math.max(current, Math.abs(this.fadeTarget)) : current;
+    }
+
+    int getCrossfade() {
+        return this.crossfade;
+    }
+
+    boolean hasNext() {
+        return this.next != null;
+    }
+
+    /**
+     * @return The number of frames left before the end, Long.MAX_VALUE when looping.
+     */
+    long remaining() {
+        return this.reader.remaining();
+    }
+
+    /**
+     * Fade this source to silence, for the next one to fade in, the gain is restored once stopped.
+     *
+     * @param delay  Number of frames before the fade begins.
+     * @param frames Duration of the fade, must be at least 1.
+     */
+    void crossfadeOut(final int delay, final int frames) {
+        if (!this.crossfading) {
+            this.crossfadeGain = this.fadeFrames > 0 ? this.fadeTarget : this.gain;
+            this.crossfading = true;
+        }
+        this.fade(delay, frames, 0f);
+    }
+
+    /**
+     * Fade this source from silence to its gain, while the previous one fades out.
+     *
+     * @param frames Duration of the fade, must be at least 1.
+     */
+    void crossfadeIn(final int frames) {
+        float target = this.fadeFrames > 0 ? this.fadeTarget : this.gain;
+        this.gain = 0f;
+        this.fade(0, frames, target);
+    }
+
+    private void fade(final int delay, final int frames, final float target) {
+        this.fadeDelay = delay;
+        this.fadeFrames = frames;
+        this.fadeTarget = target;
+        this.fadeStep = (target - this.gain) / frames;
+    }
+
+    boolean isPositioned() {
+        return this.positioned;
+    }
+
+    float getX() {
+        return this.x;
+    }
+
+    float getY() {
+        return this.y;
+    }
+
+    float getZ() {
+        return this.z;
+    }
+
+    float getVelocityX() {
+        return this.velocityX;
+    }
+
+    float getVelocityY() {
+        return this.velocityY;
+    }
+
+    float getVelocityZ() {
+        return this.velocityZ;
+    }
+
+    float getDirectionX() {
+        return this.directionX;
+    }
+
+    float getDirectionY() {
+        return this.directionY;
+    }
+
+    float getDirectionZ() {
+        return this.directionZ;
+    }
+
+    /**
+     * @return The number of channels of the played frames.
+     */
+    int getChannels() {
+        return this.reader.channels();
+    }
+
+    /**
+     * Called by the mixer once this source is no longer playing.
+     */
+    void stopped() {
+        this.reader.stop();
+        this.started = false;
+        if (this.pool != null) {
+            this.pool.release(this);
+        }
+        if (this.crossfading) {
+            this.gain = this.crossfadeGain;
+            this.crossfading = false;
+        } else if (this.fadeFrames > 0) {
+            this.gain = this.fadeTarget;
+        }
+        this.fadeFrames = 0;
+        this.fadeDelay = 0;
+    }
+
+    /**
+     * Provide the chained source, and forget it.
+     *
+     * @return The source to start once this one ended, null if none.
+     */
+    MixerSoundSource takeNext() {
+        MixerSoundSource result = this.next;
+        this.next = null;
+        return result != null && !result.deleted && result.activeIndex == -1 ? result : null;
+    }
+
+    /**
+     * Accumulate the next frames of this source in a stereo interleaved mix buffer.
+     * The source gain is applied on top of the given ones, ramping frame by frame while fading.
+     *
+     * @param mix     Stereo interleaved buffer to accumulate into.
+     * @param scratch Buffer to read the frames into, large enough for a block of this source.
+     * @param offset  First frame to write in the mix buffer.
+     * @param frames  Number of frames to render.
+     * @param left    Gain for the left channel.
+     * @param right   Gain for the right channel.
+     *
+     * @return The number of rendered frames, less than requested if the source reached its end.
+     */
+    int render(final float[] mix, final float[] scratch, final int offset, final int frames, final float left, final float right) {
+        final int read = this.reader.read(scratch, frames);
+        final int channels = this.reader.channels();
+        int done = 0;
+        while (done < read) {
+            int count;
+            if (this.fadeDelay > 0) {
+                count = Math.min(this.fadeDelay, read - done);
+                this.fadeDelay -= count;
+                MixKernel.accumulate(scratch, done, channels, mix, offset + done, count, left * this.gain, right * this.gain);
+            } else if (this.fadeFrames > 0) {
+                count = Math.min(this.fadeFrames, read - done);
+                MixKernel.accumulateRamp(scratch, done, channels, mix, offset + done, count, left, right, this.gain, this.fadeStep);
+                this.fadeFrames -= count;
+                this.gain = this.fadeFrames == 0 ? this.fadeTarget : this.gain + this.fadeStep * count;
+            } else {
+                count = read - done;
+                MixKernel.accumulate(scratch, done, channels, mix, offset + done, count, left * this.gain, right * this.gain);
+            }
+            done += count;
+        }
+        return read;
+    }
+
+    /**
+     * Advance this source without mixing it, as a virtual voice: the position and the fades progress as if it was heard.
+     *
+     * @param frames Number of frames to skip.
+     *
+     * @return The number of skipped frames, less than requested if the source reached its end.
+     */
+    int skip(final int frames) {
+        final int read = this.reader.skip(frames);
+        int left = read;
+        int delay = Math.min(this.fadeDelay, left);
+        this.fadeDelay -= delay;
+        left -= delay;
+        if (left > 0 && this.fadeFrames > 0) {
+            int count = Math.min(this.fadeFrames, left);
+            this.fadeFrames -= count;
+            this.gain = this.fadeFrames == 0 ? this.fadeTarget : this.gain + this.fadeStep * count;
+        }
+        return read;
+    }
+
+    /**
+     * @return The listeners to notify when the playback reaches its end.
+     */
+    EndPlayListeners getEndPlayListeners() {
+        return this.listeners;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    float getPitch() {
+        return this.pitch;
+    }
+
+    /**
+     * Set the interpolation used to read the frames, only if the source is pitched or converted.
+     *
+     * @param interpolation Interpolation to use.
+     */
+    void setInterpolation(final Interpolation interpolation) {
+        if (this.resampler != null) {
+            this.resampler.setInterpolation(interpolation);
+        }
+    }
+
+    /**
+     * @return True if the frames are read at a fractional position.
+     */
+    boolean isResampled() {
+        return this.resampler != null;
+    }
+
+    /**
+     * @return True if the frames are decoded from the file while playing.
+     */
+    boolean isStreamed() {
+        return this.reader.isStreamed();
+    }
+
+    /**
+     * @return The interpolation used to read the frames, null if they are not read at a fractional position.
+     */
+    Interpolation getInterpolation() {
+        return this.resampler == null ? null : this.resampler.getInterpolation();
+    }
+
+    /**
+     * @return The bus this source is mixed into.
+     */
+    MixerBus getBus() {
+        return this.bus;
+    }
+
+    /**
+     * Prepare a stopped one shot voice to play another sound, as a new source would be.
+     *
+     * @param name   Name of the played file.
+     * @param sample Cache entry of the played file.
+     * @param x      Position x.
+     * @param y      Position y.
+     * @param z      Position z.
+     * @param gain   Gain of the sound.
+     */
+    void reuse(final String name, final CachedSample sample, final float x, final float y, final float z, final float gain) {
+        ((BufferReader) this.reader).setSample(sample);
+        this.reader.setLooping(false);
+        this.name = name;
+        this.gain = gain;
+        this.fadeFrames = 0;
+        this.fadeDelay = 0;
+        this.crossfading = false;
+        this.crossfade = 0;
+        this.next = null;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.positioned = true;
+        this.velocityX = 0;
+        this.velocityY = 0;
+        this.velocityZ = 0;
+        this.directionX = 0;
+        this.directionY = 0;
+        this.directionZ = 0;
+    }
+}
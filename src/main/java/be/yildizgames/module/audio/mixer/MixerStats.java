@@ -0,0 +1,87 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.AudioEngineStats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free recorder of the mixer activity, written by the mixing and loading threads, read by any thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class MixerStats {
+
+    /**
+     * Number of mixes per duration bucket.
+     */
+    private final AtomicLongArray mixHistogram = new AtomicLongArray(AudioEngineStats.HISTOGRAM_BUCKETS);
+
+    private final LongAdder mixNanos = new LongAdder();
+
+    /**
+     * Number of blocks the audio thread mixed after their deadline.
+     */
+    private final LongAdder lateBlocks = new LongAdder();
+
+    private final LongAdder decodeCount = new LongAdder();
+
+    private final LongAdder decodeNanos = new LongAdder();
+
+    void recordMix(final long nanos) {
+        this.mixHistogram.incrementAndGet(AudioEngineStats.bucket(nanos));
+        this.mixNanos.add(nanos);
+    }
+
+    void recordLateBlock() {
+        this.lateBlocks.increment();
+    }
+
+    void recordDecode(final long nanos) {
+        this.decodeCount.increment();
+        this.decodeNanos.add(nanos);
+    }
+
+    /**
+     * Build a snapshot of the counters, each counter is read atomically, but not all of them at the same instant.
+     *
+     * @param mixer  Mixer to read the voice counts from.
+     * @param cache  Cache to read the hits from.
+     * @param feeder Feeder to read the stream underruns from.
+     *
+     * @return The snapshot, never null.
+     */
+    AudioEngineStats snapshot(final Mixer mixer, final SampleCache cache, final StreamFeeder feeder) {
+        long[] histogram = new long[AudioEngineStats.HISTOGRAM_BUCKETS];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = this.mixHistogram.get(i);
+        }
+        return new AudioEngineStats(mixer.getRealCount(), mixer.getVirtualCount(), histogram, this.mixNanos.sum(),
+                feeder.getUnderruns() + this.lateBlocks.sum(), this.decodeCount.sum(), this.decodeNanos.sum(),
+                cache.getHits(), cache.getMisses(), cache.getResidentBytes());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Software mixer engine rendering faster than real time, without any device.
+ * The blocks are mixed on demand in the calling thread, as fast as possible, and the time of the engine is the number of frames mixed.
+ * Nothing is left to other threads: the streams are refilled and the next musics of the playlists are prepared by the rendering thread,
+ * so a render gives the same result on every machine, whatever its speed.
+ * This holds as long as the end of play listeners are called during the render, the default,
+ * and the playlists are not shuffled or drawn at random.
+ * Used to render a mix to a wave file, to compare it with a reference or to prepare a loop,
+ * or to measure the mixer throughput.
+ *
+ * @author Grégory Van den Borre
+ */
+public final class OfflineAudioEngine extends MixerAudioEngine {
+
+    /**
+     * Number of frames mixed since this engine was created, the virtual clock of this engine.
+     */
+    private long renderedFrames;
+
+    /**
+     * Create a new engine.
+     *
+     * @param sampleRate Number of frames per second of the output, must be at least 1.
+     * @param blockSize  Number of frames mixed at once, must be at least 1.
+     */
+    OfflineAudioEngine(final int sampleRate, final int blockSize) {
+        super(sampleRate, blockSize);
+    }
+
+    /**
+     * Prepare the next musics of the playlists immediately, in the thread asking for them, so they are always chained
+     * at the same frame.
+     *
+     * @return An executor running the tasks in the calling thread.
+     */
+    @Override
+    protected Executor getPrefetchExecutor() {
+        return Runnable::run;
+    }
+
+    /**
+     * Mix the given duration, in whole blocks, and send the blocks to the output.
+     * The sources and the playlists advance as if that time had passed, and the end of play listeners are notified.
+     *
+     * @param frames Number of frames to mix, cannot be negative, must be a multiple of the block size.
+     *
+     * @return The number of frames mixed.
+     *
+     * @throws IllegalArgumentException If the number of frames is negative or not a multiple of the block size.
+     * @throws IllegalStateException If an audio or streaming thread is enabled, the render would then depend on their timing.
+     */
+    public long render(final long frames) {
+        this.checkFrames(frames);
+        if (this.isThreaded()) {
+            throw new IllegalStateException("Offline rendering cannot use an audio or streaming thread.");
+        }
+        long mixed = 0;
+        while (mixed < frames) {
+            this.update();
+            mixed += this.getBlockSize();
+        }
+        this.renderedFrames += mixed;
+        return mixed;
+    }
+
+    /**
+     * Mix the given duration and write it as a stereo 32 bits float wave file to a channel.
+     * The channel does not need to be seekable, and is not closed.
+     *
+     * @param channel Channel to write to, cannot be null.
+     * @param frames  Number of frames to write, cannot be negative, must be a multiple of the block size.
+     *
+     * @return This object for chaining, never null.
+     *
+     * @throws IllegalArgumentException If the number of frames is negative or not a multiple of the block size.
+     * @throws UncheckedIOException If the channel cannot be written.
+     */
+    public OfflineAudioEngine render(final WritableByteChannel channel, final long frames) {
+        Objects.requireNonNull(channel);
+        this.checkFrames(frames);
+        MixerOutput previous = this.getOutput();
+        this.setOutput(new WaveWriter(channel, this.getSampleRate(), frames, this.getBlockSize()));
+        try {
+            this.render(frames);
+        } finally {
+            this.setOutput(previous);
+        }
+        return this;
+    }
+
+    /**
+     * Mix the given duration and write it as a stereo 32 bits float wave file, replacing the file if it exists.
+     *
+     * @param file   File to write, cannot be null.
+     * @param frames Number of frames to write, cannot be negative, must be a multiple of the block size.
+     *
+     * @return This object for chaining, never null.
+     *
+     * @throws IllegalArgumentException If the number of frames is negative or not a multiple of the block size.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public OfflineAudioEngine render(final Path file, final long frames) {
+        Objects.requireNonNull(file);
+        this.checkFrames(frames);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return this.render(channel, frames);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The number of frames mixed since this engine was created.
+     */
+    public long getRenderedFrames() {
+        return this.renderedFrames;
+    }
+
+    /**
+     * Only whole blocks are mixed, a partial one would be mixed entirely and its tail lost for the next render.
+     */
+    private void checkFrames(final long frames) {
+        if (frames < 0) {
+            throw new IllegalArgumentException("Number of frames cannot be negative: " + frames);
+        }
+        if (frames % this.getBlockSize() != 0) {
+            throw new IllegalArgumentException("Number of frames must be a multiple of the block size " + this.getBlockSize() + ": " + frames);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+/**
+ * Preallocated voices playing the one shot sounds, a voice goes back to the pool as soon as its sound ends.
+ * When all the voices are playing, the one started first is stopped and reused.
+ * Only used by the thread mixing the blocks, playing a sound does not allocate.
+ *
+ * @author Grégory Van den Borre
+ */
+final class OneShotPool {
+
+    /**
+     * All the voices of the pool.
+     */
+    private final MixerSoundSource[] voices;
+
+    /**
+     * Order in which the voices were started, to find the oldest one.
+     */
+    private final long[] starts;
+
+    /**
+     * Indices of the voices which are not playing.
+     */
+    private final int[] free;
+
+    private int freeCount;
+
+    /**
+     * Incremented for every started voice.
+     */
+    private long counter;
+
+    /**
+     * Create the pool and all its voices.
+     *
+     * @param mixer Mixer playing the voices.
+     * @param cache Cache providing the decoded samples.
+     * @param bus   Bus the voices are mixed into.
+     * @param size  Number of voices, must be at least 1.
+     */
+    OneShotPool(final Mixer mixer, final SampleCache cache, final MixerBus bus, final int size) {
+        super();
+        if (size < 1) {
+            throw new IllegalArgumentException("One shot pool size must be at least 1.");
+        }
+        this.voices = new MixerSoundSource[size];
+        this.starts = new long[size];
+        this.free = new int[size];
+        for (int i = 0; i < size; i++) {
+            MixerSoundSource voice = new MixerSoundSource(mixer, new BufferReader(cache, null), "one-shot", bus);
+            voice.pool = this;
+            voice.poolIndex = i;
+            this.voices[i] = voice;
+            this.free[i] = size - 1 - i;
+        }
+        this.freeCount = size;
+    }
+
+    /**
+     * Play a sound on a free voice, or on the oldest one if none is free.
+     *
+     * @param name   Name of the played file.
+     * @param sample Cache entry of the played file.
+     * @param x      Position x.
+     * @param y      Position y.
+     * @param z      Position z.
+     * @param gain   Gain of the sound.
+     */
+    void play(final String name, final CachedSample sample, final float x, final float y, final float z, final float gain) {
+        if (this.freeCount == 0) {
+            this.voices[this.oldest()].stop();
+        }
+        this.freeCount--;
+        int index = this.free[this.freeCount];
+        this.starts[index] = ++this.counter;
+        MixerSoundSource voice = this.voices[index];
+        voice.reuse(name, sample, x, y, z, gain);
+        voice.play();
+    }
+
+    /**
+     * Give a voice back to the pool, once its sound is stopped.
+     *
+     * @param voice Voice to give back.
+     */
+    void release(final MixerSoundSource voice) {
+        this.free[this.freeCount] = voice.poolIndex;
+        this.freeCount++;
+    }
+
+    /**
+     * @return The number of voices which are not playing.
+     */
+    int getFreeCount() {
+        return this.freeCount;
+    }
+
+    /**
+     * @return The total number of voices.
+     */
+    int size() {
+        return this.voices.length;
+    }
+
+    private int oldest() {
+        int result = 0;
+        for (int i = 1; i < this.starts.length; i++) {
+            if (this.starts[i] < this.starts[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}
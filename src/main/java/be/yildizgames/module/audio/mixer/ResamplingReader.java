@@ -0,0 +1,377 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.Arrays;
+
+/**
+ * Convert the frames of another reader to a different rate while reading, used for the streamed and mapped files,
+ * and for the pitched voices.
+ * The interpolation can be changed at any time, cubic Hermite by default, much cheaper than the load time conversion.
+ *
+ * @author Grégory Van den Borre
+ */
+final class ResamplingReader implements FrameReader {
+
+    /**
+     * Number of input frames used on each side of the position by the sinc interpolation.
+     */
+    static final int SINC_HALF_TAPS = 8;
+
+    /**
+     * Number of fractional positions of the sinc table.
+     */
+    private static final int SINC_PHASES = 256;
+
+    /**
+     * Cut off frequency of the sinc interpolation, relative to the input Nyquist frequency, when the step is at most 1.
+     */
+    private static final double SINC_CUTOFF = 0.9;
+
+    /**
+     * Number of sinc tables, each range of steps ends at a step sqrt(2) times the previous one, the last one at 4.
+     */
+    private static final int SINC_BANDS = 5;
+
+    /**
+     * Sinc interpolation tables, shared by all readers, one per range of steps.
+     * The cut off is divided by the range highest step, so reading faster than the input rate does not alias,
+     * steps higher than 4 use the last table and can alias.
+     */
+    private static final float[][] SINC = sincTables();
+
+    /**
+     * Number of input frames kept before and after the position, enough for every interpolation.
+     */
+    private static final int MARGIN = SINC_HALF_TAPS;
+
+    /**
+     * Number of input frames read from the wrapped reader at once.
+     */
+    private static final int CHUNK = 1024;
+
+    /**
+     * Reader providing the frames at the source rate.
+     */
+    private final FrameReader reader;
+
+    private final int channels;
+
+    /**
+     * Input frames needed by the interpolation, from MARGIN frames before the current position.
+     */
+    private final float[] input;
+
+    /**
+     * Frames read from the wrapped reader, before being appended to the input.
+     */
+    private final float[] scratch;
+
+    /**
+     * Input frames consumed per output frame, without pitch.
+     */
+    private final double ratio;
+
+    /**
+     * Input frames consumed per output frame.
+     */
+    private double step;
+
+    private Interpolation interpolation = Interpolation.CUBIC;
+
+    /**
+     * Sinc table for the current step.
+     */
+    private float[] sinc;
+
+    /**
+     * Number of valid frames in the input.
+     */
+    private int available;
+
+    /**
+     * Position of the next output frame in the input, in frames.
+     */
+    private double position;
+
+    /**
+     * Index in the input of the frame following the last source frame, -1 until the wrapped reader reached its end.
+     */
+    private int end;
+
+    /**
+     * Full constructor.
+     *
+     * @param reader Reader providing the frames at the source rate.
+     * @param from   Source rate.
+     * @param to     Target rate.
+     */
+    ResamplingReader(final FrameReader reader, final int from, final int to) {
+        super();
+        if (from < 1 || to < 1) {
+            throw new IllegalArgumentException("Invalid sample rate.");
+        }
+        this.reader = reader;
+        this.channels = reader.channels();
+        this.ratio = (double) from / to;
+        this.step = this.ratio;
+        this.sinc = SINC[sincBand(this.step)];
+        this.input = new float[(CHUNK + 2 * MARGIN) * this.channels];
+        this.scratch = new float[CHUNK * this.channels];
+        this.reset();
+    }
+
+    /**
+     * Change the playback speed, and so the pitch, from the next read frame.
+     *
+     * @param pitch Speed factor, 1 to keep the original speed, must be positive.
+     */
+    void setPitch(final float pitch) {
+        this.step = this.ratio * pitch;
+        this.sinc = SINC[sincBand(this.step)];
+    }
+
+    void setInterpolation(final Interpolation interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    Interpolation getInterpolation() {
+        return this.interpolation;
+    }
+
+    @Override
+    public void start() {
+        this.reader.start();
+    }
+
+    @Override
+    public void prepare() {
+        this.reader.prepare();
+    }
+
+    @Override
+    public boolean isStreamed() {
+        return this.reader.isStreamed();
+    }
+
+    @Override
+    public void stop() {
+        this.reader.stop();
+    }
+
+    @Override
+    public int read(final float[] target, final int frames) {
+        return this.advance(target, frames);
+    }
+
+    @Override
+    public int skip(final int frames) {
+        return this.advance(null, frames);
+    }
+
+    /**
+     * Produce the next frames, interpolating them if a target is provided.
+     *
+     * @param target Array receiving the frames, null to only move the position.
+     * @param frames Maximum number of frames to produce.
+     *
+     * @return The number of frames produced.
+     */
+    private int advance(final float[] target, final int frames) {
+        final int c = this.channels;
+        int done = 0;
+        while (done < frames) {
+            int i = (int) this.position;
+            if (this.end != -1 && i >= this.end) {
+                break;
+            }
+            if (i + MARGIN >= this.available) {
+                this.refill();
+                continue;
+            }
+            if (target != null) {
+                this.interpolate(target, done * c, i, (float) (this.position - i));
+            }
+            this.position += this.step;
+            done++;
+        }
+        return done;
+    }
+
+    /**
+     * Compute one output frame.
+     *
+     * @param target Array receiving the frame.
+     * @param out    Index of the frame first sample in the target.
+     * @param i      Input frame before or at the position.
+     * @param t      Position between the frame i and the next one, from 0 to 1.
+     */
+    private void interpolate(final float[] target, final int out, final int i, final float t) {
+        final int c = this.channels;
+        final float[] in = this.input;
+        switch (this.interpolation) {
+            case NEAREST -> System.arraycopy(in, (t < 0.5f ? i : i + 1) * c, target, out, c);
+            case LINEAR -> {
+                for (int ch = 0; ch < c; ch++) {
+                    float p1 = in[i * c + ch];
+                    target[out + ch] = p1 + (in[(i + 1) * c + ch] - p1) * t;
+                }
+            }
+            case CUBIC -> {
+                int base = (i - 1) * c;
+                for (int ch = 0; ch < c; ch++) {
+                    target[out + ch] = hermite(in[base + ch], in[base + c + ch], in[base + 2 * c + ch], in[base + 3 * c + ch], t);
+                }
+            }
+            default -> {
+                int coefficients = Math.min(SINC_PHASES - 1, (int) (t * SINC_PHASES)) * 2 * SINC_HALF_TAPS;
+                int first = i - SINC_HALF_TAPS + 1;
+                for (int ch = 0; ch < c; ch++) {
+                    float sum = 0;
+                    for (int j = 0; j < 2 * SINC_HALF_TAPS; j++) {
+                        sum += in[(first + j) * c + ch] * this.sinc[coefficients + j];
+                    }
+                    target[out + ch] = sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the consumed input frames, and append the next frames of the wrapped reader.
+     * Once the wrapped reader reached its end, silent frames are appended so the last frames can be interpolated.
+     */
+    private void refill() {
+        final int c = this.channels;
+        int keep = Math.max(0, (int) this.position - MARGIN + 1);
+        if (keep > this.available) {
+            //High pitch, the position went past the input, the frames in between are never read.
+            int skipped = this.reader.skip(keep - this.available);
+            this.position -= keep - this.available - skipped;
+            keep = this.available;
+        }
+        System.arraycopy(this.input, keep * c, this.input, 0, (this.available - keep) * c);
+        this.available -= keep;
+        this.position -= keep;
+        if (this.end != -1) {
+            this.end -= keep;
+        }
+        int space = this.input.length / c - this.available;
+        if (this.end != -1) {
+            Arrays.fill(this.input, this.available * c, this.input.length, 0f);
+            this.available = this.input.length / c;
+            return;
+        }
+        int wanted = Math.min(CHUNK, space - MARGIN);
+        int read = this.reader.read(this.scratch, wanted);
+        System.arraycopy(this.scratch, 0, this.input, this.available * c, read * c);
+        this.available += read;
+        if (read < wanted) {
+            this.end = this.available;
+        }
+    }
+
+    @Override
+    public long remaining() {
+        long left = this.reader.remaining();
+        if (left == Long.MAX_VALUE) {
+            return left;
+        }
+        double buffered = (this.end == -1 ? this.available : this.end) - this.position;
+        return Math.max(0, (long) Math.ceil((left + buffered) / this.step));
+    }
+
+    @Override
+    public void rewind() {
+        this.reader.rewind();
+        this.reset();
+    }
+
+    @Override
+    public void setLooping(final boolean looping) {
+        this.reader.setLooping(looping);
+    }
+
+    @Override
+    public int channels() {
+        return this.channels;
+    }
+
+    @Override
+    public void close() {
+        this.reader.close();
+    }
+
+    /**
+     * Start again from the first frame, with silent frames before it.
+     */
+    private void reset() {
+        Arrays.fill(this.input, 0, MARGIN * this.channels, 0f);
+        this.available = MARGIN;
+        this.position = MARGIN;
+        this.end = -1;
+    }
+
+    private static float[][] sincTables() {
+        float[][] tables = new float[SINC_BANDS][];
+        for (int band = 0; band < SINC_BANDS; band++) {
+            tables[band] = SincResampler.table(SINC_PHASES, SINC_HALF_TAPS, SINC_CUTOFF / Math.pow(2, band * 0.5));
+        }
+        return tables;
+    }
+
+    /**
+     * Find the sinc table to use for a step.
+     *
+     * @param step Input frames consumed per output frame.
+     *
+     * @return The index of the table with the highest cut off not aliasing at this step, the last one above 4.
+     */
+    static int sincBand(final double step) {
+        if (step <= 1) {
+            return 0;
+        }
+        //Small tolerance so an exact power of sqrt(2) is in its own range.
+        return (int) Math.min(SINC_BANDS - 1, Math.ceil(2 * Math.log(step) / Math.log(2) - 1e-9));
+    }
+
+    /**
+     * Cubic Hermite interpolation between p1 and p2.
+     *
+     * @param p0 Frame before p1.
+     * @param p1 Frame at the position 0.
+     * @param p2 Frame at the position 1.
+     * @param p3 Frame after p2.
+     * @param t  Position between p1 and p2, from 0 to 1.
+     *
+     * @return The interpolated value.
+     */
+    static float hermite(final float p0, final float p1, final float p2, final float p3, final float t) {
+        float c1 = 0.5f * (p2 - p0);
+        float c2 = p0 - 2.5f * p1 + 2f * p2 - 0.5f * p3;
+        float c3 = 0.5f * (p3 - p0) + 1.5f * (p1 - p2);
+        return ((c3 * t + c2) * t + c1) * t + p1;
+    }
+}
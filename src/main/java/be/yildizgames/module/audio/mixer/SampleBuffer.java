@@ -0,0 +1,81 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.Objects;
+
+/**
+ * Immutable decoded audio data, stored as interleaved float samples in [-1, 1].
+ *
+ * @author Grégory Van den Borre
+ */
+final class SampleBuffer {
+
+    /**
+     * Interleaved samples, never modified once built.
+     */
+    final float[] samples;
+
+    /**
+     * Number of interleaved channels.
+     */
+    final int channels;
+
+    /**
+     * Number of frames per second.
+     */
+    final int sampleRate;
+
+    /**
+     * Number of frames (one sample for every channel).
+     */
+    final int frames;
+
+    /**
+     * Full constructor.
+     *
+     * @param samples    Interleaved samples, cannot be null, ownership is transferred to this object.
+     * @param channels   Number of interleaved channels, must be at least 1.
+     * @param sampleRate Number of frames per second, must be at least 1.
+     */
+    SampleBuffer(final float[] samples, final int channels, final int sampleRate) {
+        super();
+        Objects.requireNonNull(samples);
+        if (channels < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("Invalid sample format.");
+        }
+        this.samples = samples;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.frames = samples.length / channels;
+    }
+
+    /**
+     * @return The memory used by the samples, in bytes.
+     */
+    long size() {
+        return (long) this.samples.length * Float.BYTES;
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of decoded samples, shared by all the sources of an engine.
+ * The cache is limited by a number of files and by a memory budget. When a limit is exceeded,
+ * the buffers which are not playing are evicted, lowest priority first, then least recently used first.
+ * If every buffer is playing, the limit is temporarily exceeded until some of them are stopped.
+ * Every priority has its own queue, least recently used first, so the buffer to evict is found at the head of a queue
+ * instead of by scanning all the entries.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SampleCache {
+
+    /**
+     * Logger.
+     */
+    private final System.Logger logger = System.getLogger(SampleCache.class.toString());
+
+    /**
+     * Cached entries.
+     */
+    private final Map<Path, CachedSample> entries = new HashMap<>();
+
+    /**
+     * Cached entries by priority, every queue is ordered from the least to the most recently used.
+     * A buffer pinned by a source without going through the cache is moved to the end of its queue
+     * when it is met by an eviction, so the order is caught up lazily.
+     */
+    private final NavigableMap<Integer, LinkedHashMap<Path, CachedSample>> queues = new TreeMap<>();
+
+    /**
+     * Priority to give to files once decoded.
+     */
+    private final Map<Path, Integer> priorities = new HashMap<>();
+
+    /**
+     * Listeners to notify on eviction.
+     */
+    private final List<SampleEvictionListener> evictionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Function decoding a file.
+     */
+    private final Function<Path, SampleBuffer> decoder;
+
+    /**
+     * Maximum number of cached buffers.
+     */
+    private int capacity;
+
+    /**
+     * Maximum number of bytes of cached buffers.
+     */
+    private long budget = Long.MAX_VALUE;
+
+    /**
+     * Number of bytes of cached buffers, written under the lock, readable without it.
+     */
+    private volatile long residentBytes;
+
+    /**
+     * True when a limit was exceeded and could not be honored because the buffers were playing.
+     */
+    private volatile boolean overLimit;
+
+    private volatile long hits;
+
+    private volatile long misses;
+
+    private long evictions;
+
+    /**
+     * Create a new cache.
+     *
+     * @param capacity Maximum number of cached buffers, 0 to disable the cache.
+     * @param decoder  Function decoding a file, cannot be null.
+     */
+    SampleCache(final int capacity, final Function<Path, SampleBuffer> decoder) {
+        super();
+        Objects.requireNonNull(decoder);
+        this.decoder = decoder;
+        this.setCapacity(capacity);
+    }
+
+    /**
+     * Provide the entry for a file, decoding it if it is not cached.
+     * The decoding is done outside of the cache lock, so other files can be retrieved meanwhile.
+     *
+     * @param file Resolved file, cannot be null.
+     *
+     * @return The entry for the file, never null, its buffer is never null at the time it is returned.
+     */
+    CachedSample get(final Path file) {
+        Objects.requireNonNull(file);
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (this) {
+            CachedSample entry = this.entries.get(key);
+            if (entry != null) {
+                this.hits++;
+                this.use(entry);
+                return entry;
+            }
+            this.misses++;
+        }
+        SampleBuffer decoded = this.decoder.apply(key);
+        List<CachedSample> evicted;
+        CachedSample result;
+        synchronized (this) {
+            result = new CachedSample(key, decoded, this.priorities.getOrDefault(key, 0));
+            if (this.capacity == 0) {
+                return result;
+            }
+            CachedSample previous = this.entries.putIfAbsent(key, result);
+            if (previous != null) {
+                this.use(previous);
+                return previous;
+            }
+            this.enqueue(result);
+            this.residentBytes += result.size;
+            evicted = this.trim(result);
+        }
+        this.notifyEvicted(evicted);
+        return result;
+    }
+
+    /**
+     * Provide the entry for a file only if it is already cached, without decoding it.
+     *
+     * @param file Resolved file, cannot be null.
+     *
+     * @return The entry for the file, null if it is not cached.
+     */
+    synchronized CachedSample find(final Path file) {
+        CachedSample entry = this.entries.get(file.toAbsolutePath().normalize());
+        if (entry != null) {
+            this.hits++;
+            this.use(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Set the eviction priority of a file, the lowest priorities are evicted first.
+     *
+     * @param file     Resolved file, cannot be null.
+     * @param priority Priority to set, 0 by default.
+     */
+    synchronized void setPriority(final Path file, final int priority) {
+        Path key = file.toAbsolutePath().normalize();
+        this.priorities.put(key, priority);
+        CachedSample entry = this.entries.get(key);
+        if (entry != null && entry.getPriority() != priority) {
+            this.dequeue(entry);
+            entry.setPriority(priority);
+            entry.touch();
+            this.enqueue(entry);
+        }
+    }
+
+    /**
+     * Set the maximum number of cached buffers.
+     *
+     * @param capacity Maximum number of cached buffers, 0 to disable the cache.
+     */
+    void setCapacity(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative.");
+        }
+        List<CachedSample> evicted;
+        synchronized (this) {
+            this.capacity = capacity;
+            evicted = this.trim(null);
+        }
+        this.notifyEvicted(evicted);
+    }
+
+    /**
+     * Set the maximum number of bytes of cached buffers.
+     *
+     * @param bytes Memory budget, in bytes.
+     */
+    void setBudget(final long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Memory budget cannot be negative.");
+        }
+        List<CachedSample> evicted;
+        synchronized (this) {
+            this.budget = bytes;
+            evicted = this.trim(null);
+        }
+        this.notifyEvicted(evicted);
+    }
+
+    /**
+     * Evict buffers if a limit was exceeded while all buffers were playing.
+     * Cheap when all limits are respected.
+     */
+    void enforceLimits() {
+        if (this.overLimit) {
+            List<CachedSample> evicted;
+            synchronized (this) {
+                evicted = this.trim(null);
+            }
+            this.notifyEvicted(evicted);
+        }
+    }
+
+    void addEvictionListener(final SampleEvictionListener listener) {
+        Objects.requireNonNull(listener);
+        this.evictionListeners.add(listener);
+    }
+
+    /**
+     * Remove all cached buffers.
+     */
+    synchronized void clear() {
+        this.entries.values().forEach(CachedSample::evict);
+        this.entries.clear();
+        this.queues.clear();
+        this.residentBytes = 0;
+        this.overLimit = false;
+    }
+
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    long getResidentBytes() {
+        return this.residentBytes;
+    }
+
+    long getHits() {
+        return this.hits;
+    }
+
+    long getMisses() {
+        return this.misses;
+    }
+
+    synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Evict buffers until the limits are respected, or no more buffer can be evicted.
+     *
+     * @param protectedEntry Entry which must not be evicted, can be null.
+     *
+     * @return The evicted entries, empty most of the time.
+     */
+    private List<CachedSample> trim(final CachedSample protectedEntry) {
+        List<CachedSample> evicted = List.of();
+        while (this.entries.size() > this.capacity || this.residentBytes > this.budget) {
+            CachedSample victim = this.findVictim(protectedEntry);
+            if (victim == null) {
+                this.overLimit = true;
+                return evicted;
+            }
+            if (victim.evict()) {
+                this.entries.remove(victim.file);
+                this.dequeue(victim);
+                this.residentBytes -= victim.size;
+                this.evictions++;
+                if (evicted.isEmpty()) {
+                    evicted = new ArrayList<>();
+                }
+                evicted.add(victim);
+                this.logger.log(System.Logger.Level.DEBUG, "Evicted {0}, {1} bytes.", victim.file, victim.size);
+            }
+        }
+        this.overLimit = false;
+        return evicted;
+    }
+
+    /**
+     * Find the least recently used entry of the lowest priority which is not playing.
+     * A queue is sorted by the last use known when the entries were queued, which is never after their real last use,
+     * so the scan stops as soon as an entry was queued after the best candidate was last used.
+     * The entries met which were used since they were queued are moved to the end of the queue when it keeps it sorted,
+     * the scan then only goes through the playing entries before finding the victim.
+     *
+     * @param protectedEntry Entry which must not be evicted, can be null.
+     *
+     * @return The entry to evict, null if none can be evicted.
+     */
+    private CachedSample findVictim(final CachedSample protectedEntry) {
+        for (LinkedHashMap<Path, CachedSample> queue : this.queues.values()) {
+            List<CachedSample> moved = List.of();
+            CachedSample victim = null;
+            long tail = queue.lastEntry().getValue().queuedUse;
+            Iterator<CachedSample> iterator = queue.values().iterator();
+            while (iterator.hasNext()) {
+                CachedSample entry = iterator.next();
+                if (victim != null && entry.queuedUse >= victim.getLastUse()) {
+                    break;
+                }
+                long lastUse = entry.getLastUse();
+                if (lastUse != entry.queuedUse && lastUse >= tail) {
+                    iterator.remove();
+                    entry.queuedUse = lastUse;
+                    tail = lastUse;
+                    if (moved.isEmpty()) {
+                        moved = new ArrayList<>();
+                    }
+                    moved.add(entry);
+                }
+                if (entry != protectedEntry && !entry.isPlaying() && (victim == null || lastUse < victim.getLastUse())) {
+                    victim = entry;
+                }
+            }
+            for (CachedSample entry : moved) {
+                queue.put(entry.file, entry);
+            }
+            if (victim != null) {
+                return victim;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark an entry as used, moving it to the end of its queue.
+     *
+     * @param entry Cached entry.
+     */
+    private void use(final CachedSample entry) {
+        entry.touch();
+        LinkedHashMap<Path, CachedSample> queue = this.queues.get(entry.getPriority());
+        queue.remove(entry.file);
+        queue.put(entry.file, entry);
+        entry.queuedUse = entry.getLastUse();
+    }
+
+    private void enqueue(final CachedSample entry) {
+        this.queues.computeIfAbsent(entry.getPriority(), p -> new LinkedHashMap<>()).put(entry.file, entry);
+        entry.queuedUse = entry.getLastUse();
+    }
+
+    private void dequeue(final CachedSample entry) {
+        LinkedHashMap<Path, CachedSample> queue = this.queues.get(entry.getPriority());
+        queue.remove(entry.file);
+        if (queue.isEmpty()) {
+            this.queues.remove(entry.getPriority());
+        }
+    }
+
+    private void notifyEvicted(final List<CachedSample> evicted) {
+        for (CachedSample entry : evicted) {
+            for (SampleEvictionListener listener : this.evictionListeners) {
+                listener.sampleEvicted(entry.file, entry.size);
+            }
+        }
+    }
+}
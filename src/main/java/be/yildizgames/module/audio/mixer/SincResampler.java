@@ -0,0 +1,218 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polyphase windowed sinc sample rate converter, used to convert the decoded files once, when they are loaded.
+ * The filter for a rate pair is computed once and shared, its phases are exact when the reduced conversion ratio
+ * has at most MAX_PHASES steps, quantized otherwise.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SincResampler {
+
+    /**
+     * Number of input frames used on each side of an output frame.
+     */
+    static final int HALF_TAPS = 16;
+
+    /**
+     * Maximum number of filter phases.
+     */
+    private static final int MAX_PHASES = 1024;
+
+    /**
+     * Kaiser window shape, about 80dB of stop band attenuation.
+     */
+    private static final double BETA = 8.0;
+
+    /**
+     * Part of the pass band kept, the remaining is the transition band.
+     */
+    private static final double ROLL_OFF = 0.95;
+
+    /**
+     * Shared filters, by source and target rates.
+     */
+    private static final Map<Long, SincResampler> FILTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Reduced number of output frames per conversion period.
+     */
+    private final int up;
+
+    /**
+     * Reduced number of input frames per conversion period.
+     */
+    private final int down;
+
+    /**
+     * Number of filter phases.
+     */
+    private final int phases;
+
+    /**
+     * Filter coefficients, 2 * HALF_TAPS for every phase.
+     */
+    private final float[] table;
+
+    private SincResampler(final int from, final int to) {
+        super();
+        int gcd = gcd(from, to);
+        this.up = to / gcd;
+        this.down = from / gcd;
+        this.phases = Math.min(this.up, MAX_PHASES);
+        this.table = table(this.phases, HALF_TAPS, Math.min(1.0, (double) this.up / this.down) * ROLL_OFF);
+    }
+
+    /**
+     * Provide the shared converter between two rates.
+     *
+     * @param from Source rate, must be at least 1.
+     * @param to   Target rate, must be at least 1.
+     *
+     * @return The converter, never null.
+     */
+    static SincResampler forRates(final int from, final int to) {
+        if (from < 1 || to < 1) {
+            throw new IllegalArgumentException("Invalid sample rate.");
+        }
+        return FILTERS.computeIfAbsent(((long) from << 32) | to, k -> new SincResampler(from, to));
+    }
+
+    /**
+     * Convert a buffer, the frames outside of the buffer are considered silent.
+     *
+     * @param buffer Buffer to convert, at the source rate.
+     * @param rate   Target rate, must be the rate this converter was built for.
+     *
+     * @return A new buffer at the target rate.
+     */
+    SampleBuffer convert(final SampleBuffer buffer, final int rate) {
+        final int channels = buffer.channels;
+        final float[] in = buffer.samples;
+        final int inFrames = buffer.frames;
+        long outFrames = ((long) inFrames * this.up + this.down - 1) / this.down;
+        if (outFrames * channels > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Converted buffer too large.");
+        }
+        float[] out = new float[(int) outFrames * channels];
+        final int taps = 2 * HALF_TAPS;
+        for (int n = 0; n < outFrames; n++) {
+            long position = (long) n * this.down;
+            int center = (int) (position / this.up);
+            int phase = (int) (position % this.up * this.phases / this.up);
+            int first = center - HALF_TAPS + 1;
+            int from = Math.max(0, -first);
+            int to = Math.min(taps, inFrames - first);
+            int coefficients = phase * taps;
+            for (int c = 0; c < channels; c++) {
+                float sum = 0;
+                for (int j = from; j < to; j++) {
+                    sum += in[(first + j) * channels + c] * this.table[coefficients + j];
+                }
+                out[n * channels + c] = sum;
+            }
+        }
+        return new SampleBuffer(out, channels, rate);
+    }
+
+    /**
+     * Compute a windowed sinc filter table, each phase being normalized to keep the constant signals unchanged.
+     * The tap j of the phase p applies to the input frame at j - halfTaps + 1 - p / phases from the interpolated position.
+     *
+     * @param phases   Number of fractional positions.
+     * @param halfTaps Number of input frames used on each side.
+     * @param cutoff   Cut off frequency, relative to the input Nyquist frequency.
+     *
+     * @return The coefficients, 2 * halfTaps for every phase.
+     */
+    static float[] table(final int phases, final int halfTaps, final double cutoff) {
+        final int taps = 2 * halfTaps;
+        float[] result = new float[phases * taps];
+        double window = bessel(BETA);
+        for (int p = 0; p < phases; p++) {
+            double fraction = (double) p / phases;
+            double sum = 0;
+            for (int j = 0; j < taps; j++) {
+                double x = j - halfTaps + 1 - fraction;
+                double ratio = x / halfTaps;
+                double w = Math.abs(ratio) >= 1 ? 0 : bessel(BETA * Math.sqrt(1 - ratio * ratio)) / window;
+                double value = cutoff * sinc(cutoff * x) * w;
+                result[p * taps + j] = (float) value;
+                sum += value;
+            }
+            for (int j = 0; j < taps; j++) {
+                result[p * taps + j] /= (float) sum;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of filter phases.
+     */
+    int getPhases() {
+        return this.phases;
+    }
+
+    private static double sinc(final double x) {
+        if (x == 0) {
+            return 1;
+        }
+        double a = Math.PI * x;
+        return Math.sin(a) / a;
+    }
+
+    /**
+     * Zeroth order modified Bessel function of the first kind.
+     */
+    private static double bessel(final double x) {
+        double sum = 1;
+        double term = 1;
+        double half = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= half / k;
+            double square = term * term;
+            sum += square;
+            if (square < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
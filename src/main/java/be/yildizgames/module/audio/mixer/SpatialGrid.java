@@ -0,0 +1,342 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid indexing the positioned sources by cell, to find the ones close to the listener
+ * without iterating over all of them.
+ * Cells are found by their packed coordinates in an open addressing hash table, empty cells are recycled,
+ * so the memory used depends on the number of occupied cells, not on the size of the world.
+ * Once grown to its working size, the grid does not allocate.
+ *
+ * @author Grégory Van den Borre
+ */
+final class SpatialGrid {
+
+    /**
+     * Mask for one packed cell coordinate, 21 bits per axis.
+     */
+    private static final long AXIS_MASK = 0x1FFFFFL;
+
+    /**
+     * Marker for an empty slot in the hash table.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Size of a cell side.
+     */
+    private float cellSize;
+
+    /**
+     * Hash table slots, containing a cell index or EMPTY, the length is a power of 2.
+     */
+    private int[] table = new int[64];
+
+    /**
+     * Packed coordinates of every cell.
+     */
+    private long[] cellKeys = new long[32];
+
+    /**
+     * Sources in every cell, only the first cellCounts are relevant.
+     */
+    private MixerSoundSource[][] cellSources = new MixerSoundSource[32][];
+
+    private int[] cellCounts = new int[32];
+
+    /**
+     * Indices of the cells no longer used.
+     */
+    private int[] free = new int[32];
+
+    private int freeCount;
+
+    /**
+     * Number of cells created, used or not.
+     */
+    private int cellCount;
+
+    /**
+     * Number of cells in use.
+     */
+    private int usedCount;
+
+    /**
+     * Create a new grid.
+     *
+     * @param cellSize Size of a cell side, must be positive.
+     */
+    SpatialGrid(final float cellSize) {
+        super();
+        this.setCellSize(cellSize);
+        Arrays.fill(this.table, EMPTY);
+    }
+
+    /**
+     * Change the cell size, the grid must be empty.
+     *
+     * @param cellSize Size of a cell side, must be positive.
+     */
+    void setCellSize(final float cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive.");
+        }
+        if (this.usedCount != 0) {
+            throw new IllegalStateException("Grid must be empty to change the cell size.");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Add a source, at its current position.
+     *
+     * @param source Source to add, must not be in the grid.
+     */
+    void insert(final MixerSoundSource source) {
+        long key = this.key(source.getX(), source.getY(), source.getZ());
+        int cell = this.findOrCreate(key);
+        MixerSoundSource[] sources = this.cellSources[cell];
+        int count = this.cellCounts[cell];
+        if (count == sources.length) {
+            sources = Arrays.copyOf(sources, count * 2);
+            this.cellSources[cell] = sources;
+        }
+        sources[count] = source;
+        source.gridCell = cell;
+        source.gridSlot = count;
+        this.cellCounts[cell] = count + 1;
+    }
+
+    /**
+     * Remove a source.
+     *
+     * @param source Source to remove, must be in the grid.
+     */
+    void remove(final MixerSoundSource source) {
+        int cell = source.gridCell;
+        MixerSoundSource[] sources = this.cellSources[cell];
+        int count = this.cellCounts[cell] - 1;
+        MixerSoundSource last = sources[count];
+        sources[source.gridSlot] = last;
+        last.gridSlot = source.gridSlot;
+        sources[count] = null;
+        this.cellCounts[cell] = count;
+        source.gridCell = -1;
+        if (count == 0) {
+            this.release(cell);
+        }
+    }
+
+    /**
+     * Update the cell of a source after its position changed.
+     *
+     * @param source Source to update, must be in the grid.
+     */
+    void move(final MixerSoundSource source) {
+        if (this.cellKeys[source.gridCell] != this.key(source.getX(), source.getY(), source.getZ())) {
+            this.remove(source);
+            this.insert(source);
+        }
+    }
+
+    /**
+     * Mark all sources in the cells intersecting a cube around a point.
+     *
+     * @param x      Cube center x.
+     * @param y      Cube center y.
+     * @param z      Cube center z.
+     * @param radius Half size of the cube.
+     * @param stamp  Value set in the nearStamp of every found source.
+     */
+    void mark(final float x, final float y, final float z, final float radius, final int stamp) {
+        if (this.usedCount == 0) {
+            return;
+        }
+        long minX = this.cell(x - radius);
+        long maxX = this.cell(x + radius);
+        long minY = this.cell(y - radius);
+        long maxY = this.cell(y + radius);
+        long minZ = this.cell(z - radius);
+        long maxZ = this.cell(z + radius);
+        long spanX = maxX - minX;
+        long spanY = maxY - minY;
+        long spanZ = maxZ - minZ;
+        // Looking up more cells than the used ones is slower than checking the used ones,
+        // and a range reaching the int limits would never end.
+        if ((double) (spanX + 1) * (spanY + 1) * (spanZ + 1) > this.usedCount) {
+            for (int cell = 0; cell < this.cellCount; cell++) {
+                long key = this.cellKeys[cell];
+                if (this.cellCounts[cell] > 0
+                        && inRange(key >>> 42, minX, spanX)
+                        && inRange(key >>> 21, minY, spanY)
+                        && inRange(key, minZ, spanZ)) {
+                    this.markCell(cell, stamp);
+                }
+            }
+            return;
+        }
+        for (long cx = minX; cx <= maxX; cx++) {
+            for (long cy = minY; cy <= maxY; cy++) {
+                for (long cz = minZ; cz <= maxZ; cz++) {
+                    int cell = this.find(pack((int) cx, (int) cy, (int) cz));
+                    if (cell != EMPTY) {
+                        this.markCell(cell, stamp);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a packed cell coordinate is in a range, with the same wrapping as the packed keys.
+     */
+    private static boolean inRange(final long packed, final long min, final long span) {
+        return span >= AXIS_MASK || ((packed - min) & AXIS_MASK) <= span;
+    }
+
+    private void markCell(final int cell, final int stamp) {
+        MixerSoundSource[] sources = this.cellSources[cell];
+        for (int i = 0, count = this.cellCounts[cell]; i < count; i++) {
+            sources[i].nearStamp = stamp;
+        }
+    }
+
+    /**
+     * @return The number of cells containing at least one source.
+     */
+    int getCellCount() {
+        return this.usedCount;
+    }
+
+    private int cell(final float coordinate) {
+        return (int) Math.floor(coordinate / this.cellSize);
+    }
+
+    private long key(final float x, final float y, final float z) {
+        return pack(this.cell(x), this.cell(y), this.cell(z));
+    }
+
+    /**
+     * Pack cell coordinates in a single value, far away cells can share the same key, it only adds false candidates.
+     */
+    private static long pack(final int x, final int y, final int z) {
+        return ((x & AXIS_MASK) << 42) | ((y & AXIS_MASK) << 21) | (z & AXIS_MASK);
+    }
+
+    private static int hash(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(final long key) {
+        int mask = this.table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int cell = this.table[slot];
+            if (cell == EMPTY || this.cellKeys[cell] == key) {
+                return cell;
+            }
+        }
+    }
+
+    private int findOrCreate(final long key) {
+        int mask = this.table.length - 1;
+        int slot = hash(key) & mask;
+        for (int cell = this.table[slot]; cell != EMPTY; cell = this.table[slot]) {
+            if (this.cellKeys[cell] == key) {
+                return cell;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int cell;
+        if (this.freeCount > 0) {
+            this.freeCount--;
+            cell = this.free[this.freeCount];
+        } else {
+            cell = this.cellCount;
+            if (cell == this.cellKeys.length) {
+                this.cellKeys = Arrays.copyOf(this.cellKeys, cell * 2);
+                this.cellSources = Arrays.copyOf(this.cellSources, cell * 2);
+                this.cellCounts = Arrays.copyOf(this.cellCounts, cell * 2);
+                this.free = Arrays.copyOf(this.free, cell * 2);
+            }
+            this.cellSources[cell] = new MixerSoundSource[4];
+            this.cellCount++;
+        }
+        this.cellKeys[cell] = key;
+        this.table[slot] = cell;
+        this.usedCount++;
+        if (this.usedCount * 2 > this.table.length) {
+            this.resize();
+        }
+        return cell;
+    }
+
+    /**
+     * Remove an empty cell from the hash table, shifting back the following entries of its probe sequence.
+     */
+    private void release(final int cell) {
+        int mask = this.table.length - 1;
+        int slot = hash(this.cellKeys[cell]) & mask;
+        while (this.table[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int moved = this.table[next];
+            if (moved == EMPTY) {
+                break;
+            }
+            int ideal = hash(this.cellKeys[moved]) & mask;
+            if (((next - ideal) & mask) >= ((next - slot) & mask)) {
+                this.table[slot] = moved;
+                slot = next;
+            }
+        }
+        this.table[slot] = EMPTY;
+        this.free[this.freeCount] = cell;
+        this.freeCount++;
+        this.usedCount--;
+    }
+
+    private void resize() {
+        int[] old = this.table;
+        this.table = new int[old.length * 2];
+        Arrays.fill(this.table, EMPTY);
+        int mask = this.table.length - 1;
+        for (int cell : old) {
+            if (cell != EMPTY) {
+                int slot = hash(this.cellKeys[cell]) & mask;
+                while (this.table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.table[slot] = cell;
+            }
+        }
+    }
+}
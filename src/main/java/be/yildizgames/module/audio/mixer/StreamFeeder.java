@@ -0,0 +1,150 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Refill the rings of the playing streams, either when feed is called, or from a dedicated thread.
+ *
+ * @author Grégory Van den Borre
+ */
+final class StreamFeeder {
+
+    /**
+     * Maximum time the feeder thread sleeps when it is not woken up by a consumed chunk.
+     */
+    private static final long MAX_SLEEP = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Streams currently playing.
+     */
+    private final List<StreamReader> streams = new CopyOnWriteArrayList<>();
+
+    /**
+     * Dedicated thread, null if the streams are refilled by feed.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Number of times a stream found its ring empty.
+     */
+    private final LongAdder underruns = new LongAdder();
+
+    /**
+     * Create a new feeder, streams are refilled by feed until start is called.
+     */
+    StreamFeeder() {
+        super();
+    }
+
+    void add(final StreamReader stream) {
+        if (!this.streams.contains(stream)) {
+            this.streams.add(stream);
+        }
+        this.wake();
+    }
+
+    void remove(final StreamReader stream) {
+        this.streams.remove(stream);
+    }
+
+    /**
+     * Refill all playing streams.
+     */
+    void feed() {
+        for (int i = 0; i < this.streams.size(); i++) {
+            this.streams.get(i).fillAll();
+        }
+    }
+
+    /**
+     * Notify a stream found its ring empty, and wake the feeder.
+     */
+    void underrun() {
+        this.underruns.increment();
+        this.wake();
+    }
+
+    /**
+     * @return The number of times a stream fed by this feeder found its ring empty.
+     */
+    long getUnderruns() {
+        return this.underruns.sum();
+    }
+
+    /**
+     * Wake the dedicated thread up, if any.
+     */
+    void wake() {
+        Thread t = this.thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Start refilling the streams from a dedicated thread.
+     */
+    synchronized void start() {
+        if (this.thread == null) {
+            this.thread = Thread.ofPlatform().daemon().name("audio-stream-feeder").start(this::run);
+        }
+    }
+
+    /**
+     * Stop the dedicated thread, streams are then refilled by feed.
+     */
+    synchronized void stop() {
+        Thread t = this.thread;
+        if (t != null) {
+            this.thread = null;
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true if the streams are refilled by a dedicated thread.
+     */
+    boolean isThreaded() {
+        return this.thread != null;
+    }
+
+    private void run() {
+        while (this.thread == Thread.currentThread()) {
+            this.feed();
+            LockSupport.parkNanos(MAX_SLEEP);
+        }
+    }
+}
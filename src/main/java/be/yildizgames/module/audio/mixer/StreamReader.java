@@ -0,0 +1,342 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.SoundCreationException;
+import be.yildizgames.module.audio.jfr.UnderrunEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read frames progressively from a wave file, through a small ring of fixed size decoded chunks.
+ * The memory used does not depend on the file length.
+ * The chunks are produced by the feeder (one thread) and consumed by the mixer (one thread),
+ * the ring indices are published through volatile fields.
+ *
+ * @author Grégory Van den Borre
+ */
+final class StreamReader implements FrameReader {
+
+    /**
+     * Logger.
+     */
+    private static final System.Logger LOGGER = System.getLogger(StreamReader.class.toString());
+
+    /**
+     * Read file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Name of the read file.
+     */
+    private final String name;
+
+    /**
+     * Format of the file.
+     */
+    private final WaveFormat format;
+
+    /**
+     * Feeder refilling this stream while it is playing.
+     */
+    private final StreamFeeder feeder;
+
+    /**
+     * Decoded chunks, used as a ring.
+     */
+    private final float[][] chunks;
+
+    /**
+     * Number of frames in each chunk, the last chunk of the file can be shorter.
+     */
+    private final int[] chunkFrames;
+
+    /**
+     * Raw bytes of one chunk, reused for every read.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * Number of chunks produced since the last rewind.
+     */
+    private volatile int produced;
+
+    /**
+     * Number of chunks fully consumed since the last rewind.
+     */
+    private volatile int consumed;
+
+    /**
+     * True once the producer reached the end of the data.
+     */
+    private volatile boolean ended;
+
+    private volatile boolean looping;
+
+    /**
+     * True between start and stop, while the mixer can consume the chunks.
+     */
+    private volatile boolean playing;
+
+    /**
+     * Frames already consumed in the current chunk, only used by the consumer.
+     */
+    private int readOffset;
+
+    /**
+     * Number of frames consumed since the last rewind, only used by the consumer, or by prepare while not playing.
+     */
+    private long readFrames;
+
+    /**
+     * Next byte to read in the data, only used by the producer.
+     */
+    private long dataPosition;
+
+    /**
+     * Open a file to stream.
+     *
+     * @param file        File to stream.
+     * @param feeder      Feeder to refill this stream.
+     * @param chunkSize   Number of frames per chunk.
+     * @param chunkCount  Number of chunks in the ring.
+     *
+     * @throws SoundCreationException If the file cannot be opened or is not a supported wave file.
+     */
+    StreamReader(final Path file, final StreamFeeder feeder, final int chunkSize, final int chunkCount) {
+        super();
+        this.feeder = feeder;
+        this.name = file.toString();
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new SoundCreationException(e);
+        }
+        try {
+            this.format = WaveDecoder.readFormat(this.channel);
+        } catch (IOException e) {
+            this.close();
+            throw new SoundCreationException(e);
+        } catch (SoundCreationException e) {
+            this.close();
+            throw e;
+        }
+        this.chunks = new float[chunkCount][chunkSize * this.format.channels];
+        this.chunkFrames = new int[chunkCount];
+        this.bytes = ByteBuffer.allocate(chunkSize * this.format.frameSize()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void start() {
+        if (this.produced == this.consumed) {
+            this.fill();
+        }
+        this.playing = true;
+        this.feeder.add(this);
+    }
+
+    /**
+     * Rewind and decode the first chunk on the calling thread, unless the stream is playing,
+     * the following rewind and start keep it as long as nothing was consumed.
+     */
+    @Override
+    public synchronized void prepare() {
+        if (!this.playing) {
+            this.rewind();
+            this.fill();
+        }
+    }
+
+    @Override
+    public void stop() {
+        this.playing = false;
+        this.feeder.remove(this);
+    }
+
+    @Override
+    public int read(final float[] target, final int frames) {
+        return this.consume(target, frames);
+    }
+
+    @Override
+    public int skip(final int frames) {
+        return this.consume(null, frames);
+    }
+
+    /**
+     * Consume the decoded frames, copying them if a target is provided.
+     * If the ring is empty before the end, the missing frames are considered as silence.
+     *
+     * @param target Array receiving the frames, null to only consume them.
+     * @param frames Maximum number of frames to consume.
+     *
+     * @return The number of frames consumed.
+     */
+    private int consume(final float[] target, final int frames) {
+        final int channels = this.format.channels;
+        int done = 0;
+        while (done < frames) {
+            int chunk = this.consumed;
+            if (chunk == this.produced) {
+                if (this.ended && chunk == this.produced) {
+                    return done;
+                }
+                if (target != null) {
+                    Arrays.fill(target, done * channels, frames * channels, 0f);
+                }
+                UnderrunEvent.stream(this.name);
+                this.feeder.underrun();
+                return frames;
+            }
+            int slot = chunk % this.chunks.length;
+            int count = Math.min(this.chunkFrames[slot] - this.readOffset, frames - done);
+            if (target != null) {
+                System.arraycopy(this.chunks[slot], this.readOffset * channels, target, done * channels, count * channels);
+            }
+            this.readOffset += count;
+            this.readFrames += count;
+            done += count;
+            if (this.readOffset == this.chunkFrames[slot]) {
+                this.readOffset = 0;
+                this.consumed = chunk + 1;
+                this.feeder.wake();
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Decode chunks until the ring is full or the end of the data is reached.
+     */
+    void fillAll() {
+        while (this.fill()) {
+            //Keep filling.
+        }
+    }
+
+    /**
+     * Decode one chunk if the ring is not full.
+     *
+     * @return true if a chunk was decoded.
+     */
+    synchronized boolean fill() {
+        int chunk = this.produced;
+        if (this.ended || chunk - this.consumed == this.chunks.length || !this.channel.isOpen()) {
+            return false;
+        }
+        try {
+            long remaining = this.format.dataLength - this.dataPosition;
+            if (remaining < this.format.frameSize() && this.looping && this.format.frames() > 0) {
+                this.dataPosition = 0;
+                remaining = this.format.dataLength;
+            }
+            int frames = (int) Math.min(this.bytes.capacity(), remaining) / this.format.frameSize();
+            if (frames == 0) {
+                this.ended = true;
+                return false;
+            }
+            this.bytes.clear().limit(frames * this.format.frameSize());
+            while (this.bytes.hasRemaining()) {
+                if (this.channel.read(this.bytes, this.format.dataOffset + this.dataPosition + this.bytes.position()) < 0) {
+                    break;
+                }
+            }
+            this.bytes.flip();
+            frames = this.bytes.remaining() / this.format.frameSize();
+            if (frames == 0) {
+                this.ended = true;
+                return false;
+            }
+            int slot = chunk % this.chunks.length;
+            WaveDecoder.toFloat(this.format, this.bytes, this.chunks[slot], 0, frames * this.format.channels);
+            this.chunkFrames[slot] = frames;
+            this.dataPosition += (long) frames * this.format.frameSize();
+            this.produced = chunk + 1;
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Error streaming audio:", e);
+            this.ended = true;
+            return false;
+        }
+    }
+
+    @Override
+    public long remaining() {
+        return this.looping ? Long.MAX_VALUE : Math.max(0, this.format.frames() - this.readFrames);
+    }
+
+    @Override
+    public synchronized void rewind() {
+        if (this.readFrames == 0 && !(this.ended && this.looping)) {
+            //Nothing consumed since the last rewind, the decoded chunks are still the first ones.
+            return;
+        }
+        this.dataPosition = 0;
+        this.readOffset = 0;
+        this.readFrames = 0;
+        this.consumed = 0;
+        this.produced = 0;
+        this.ended = false;
+    }
+
+    @Override
+    public void setLooping(final boolean looping) {
+        this.looping = looping;
+    }
+
+    @Override
+    public int channels() {
+        return this.format.channels;
+    }
+
+    @Override
+    public synchronized void close() {
+        this.feeder.remove(this);
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Error closing audio stream:", e);
+        }
+    }
+
+    @Override
+    public boolean isStreamed() {
+        return true;
+    }
+
+    /**
+     * @return The number of frames per second of the file.
+     */
+    int sampleRate() {
+        return this.format.sampleRate;
+    }
+}
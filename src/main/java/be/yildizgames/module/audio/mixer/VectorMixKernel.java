@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Inner loops of the mixer using the vector API, only loaded when the jdk.incubator.vector module is available.
+ * Every operation is done in the same order as in the scalar loops, so the results are bit identical.
+ *
+ * @author Grégory Van den Borre
+ */
+final class VectorMixKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * Lanes of the mix buffer, two per frame.
+     */
+    private static final int LANES = SPECIES.length();
+
+    /**
+     * Source index of every lane for mono frames: 0, 0, 1, 1, 2, 2...
+     */
+    private static final int[] DUPLICATE = duplicateMap();
+
+    /**
+     * Lanes of the left side.
+     */
+    private static final VectorMask<Float> LEFT = VectorMask.fromArray(SPECIES, leftLanes(), 0);
+
+    /**
+     * Frame of every lane relative to the first frame of the vector: 0, 0, 1, 1, 2, 2...
+     */
+    private static final FloatVector LANE_FRAME = FloatVector.fromArray(SPECIES, laneFrames(), 0);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private VectorMixKernel() {
+        super();
+    }
+
+    /**
+     * @return True if the preferred vectors hold at least one stereo frame.
+     */
+    static boolean isUsable() {
+        return LANES >= 2;
+    }
+
+    /**
+     * @see MixKernel#accumulate(float[], int, int, float[], int, int, float, float)
+     */
+    static void accumulate(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                           final int frames, final float left, final float right) {
+        if (channels > 2) {
+            MixKernel.accumulateScalar(source, from, channels, mix, offset, frames, left, right);
+            return;
+        }
+        FloatVector gain = sides(left, right);
+        int out = offset * 2;
+        int vectorFrames = frames - frames % (LANES / 2);
+        int i = 0;
+        for (; i < vectorFrames; i += LANES / 2, out += LANES) {
+            FloatVector samples = load(source, from + i, channels);
+            samples.mul(gain).add(FloatVector.fromArray(SPECIES, mix, out)).intoArray(mix, out);
+        }
+        MixKernel.accumulateScalar(source, from + i, channels, mix, offset + i, frames - i, left, right);
+    }
+
+    /**
+     * @see MixKernel#accumulateRamp(float[], int, int, float[], int, int, float, float, float, float)
+     */
+    static void accumulateRamp(final float[] source, final int from, final int channels, final float[] mix, final int offset,
+                               final int frames, final float left, final float right, final float start, final float step) {
+        if (channels > 2) {
+            MixKernel.accumulateRampScalar(source, from, channels, mix, offset, frames, left, right, start, step);
+            return;
+        }
+        FloatVector gain = sides(left, right);
+        int out = offset * 2;
+        int vectorFrames = frames - frames % (LANES / 2);
+        int i = 0;
+        for (; i < vectorFrames; i += LANES / 2, out += LANES) {
+            FloatVector ramp = LANE_FRAME.add(i).mul(step).add(start);
+            FloatVector samples = load(source, from + i, channels);
+            samples.mul(gain).mul(ramp).add(FloatVector.fromArray(SPECIES, mix, out)).intoArray(mix, out);
+        }
+        for (; i < frames; i++) {
+            float ramp = start + step * i;
+            int in = (from + i) * channels;
+            mix[out++] += source[in] * left * ramp;
+            mix[out++] += source[channels == 1 ? in : in + 1] * right * ramp;
+        }
+    }
+
+    /**
+     * @see MixKernel#clamp(float[], int)
+     */
+    static void clamp(final float[] mix, final int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            FloatVector.fromArray(SPECIES, mix, i).max(-1f).min(1f).intoArray(mix, i);
+        }
+        MixKernel.clampScalar(mix, i, length);
+    }
+
+    /**
+     * Load the samples for LANES / 2 frames, two lanes per frame, mono samples are duplicated.
+     */
+    private static FloatVector load(final float[] source, final int frame, final int channels) {
+        if (channels == 1) {
+            return FloatVector.fromArray(SPECIES, source, frame, DUPLICATE, 0);
+        }
+        return FloatVector.fromArray(SPECIES, source, frame * 2);
+    }
+
+    private static FloatVector sides(final float left, final float right) {
+        return FloatVector.broadcast(SPECIES, right).blend(left, LEFT);
+    }
+
+    private static boolean[] leftLanes() {
+        boolean[] lanes = new boolean[LANES];
+        for (int i = 0; i < LANES; i += 2) {
+            lanes[i] = true;
+        }
+        return lanes;
+    }
+
+    private static int[] duplicateMap() {
+        int[] map = new int[LANES];
+        for (int i = 0; i < LANES; i++) {
+            map[i] = i / 2;
+        }
+        return map;
+    }
+
+    private static float[] laneFrames() {
+        float[] frames = new float[LANES];
+        for (int i = 0; i < LANES; i++) {
+            frames[i] = i / 2;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.SoundCreationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read RIFF wave files containing integer or floating point PCM data.
+ *
+ * @author Grégory Van den Borre
+ */
+final class WaveDecoder {
+
+    /**
+     * Plain PCM format tag.
+     */
+    private static final int FORMAT_PCM = 1;
+
+    /**
+     * IEEE float format tag.
+     */
+    private static final int FORMAT_FLOAT = 3;
+
+    /**
+     * Extensible format tag, the real format is in the sub format field.
+     */
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private WaveDecoder() {
+        super();
+    }
+
+    /**
+     * Fully decode a wave file.
+     *
+     * @param file File to decode, cannot be null.
+     *
+     * @return The decoded samples, never null.
+     *
+     * @throws SoundCreationException If the file cannot be read or is not a supported wave file.
+     */
+    static SampleBuffer decode(final Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WaveFormat format = readFormat(channel);
+            long frames = format.frames();
+            long bytes = frames * format.frameSize();
+            if (bytes > Integer.MAX_VALUE - 8) {
+                throw new SoundCreationException("Audio file too large to be fully decoded: " + file);
+            }
+            int samples = (int) frames * format.channels;
+            ByteBuffer data = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(format.dataOffset);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                //Keep reading.
+            }
+            data.flip();
+            float[] result = new float[samples];
+            toFloat(format, data, result, 0, data.remaining() / (format.bitsPerSample / 8));
+            return new SampleBuffer(result, format.channels, format.sampleRate);
+        } catch (IOException e) {
+            throw new SoundCreationException(e);
+        }
+    }
+
+    /**
+     * Read the format and data location of a wave file.
+     *
+     * @param channel Channel to read the file from, cannot be null.
+     *
+     * @return The file format, never null.
+     *
+     * @throws IOException If the file cannot be read.
+     * @throws SoundCreationException If the file is not a supported wave file.
+     */
+    static WaveFormat readFormat(final FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0, 12);
+        if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+            throw new SoundCreationException("Not a RIFF wave file.");
+        }
+        long position = 12;
+        int formatTag = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int bits = 0;
+        long size = channel.size();
+        while (position + 8 <= size) {
+            readFully(channel, header, position, 8);
+            int id = header.getInt(0);
+            long length = Integer.toUnsignedLong(header.getInt(4));
+            long body = position + 8;
+            if (id == 0x20746D66) {
+                readFully(channel, header, body, (int) Math.min(length, header.capacity()));
+                formatTag = header.getShort(0) & 0xFFFF;
+                channels = header.getShort(2) & 0xFFFF;
+                sampleRate = header.getInt(4);
+                bits = header.getShort(14) & 0xFFFF;
+                if (formatTag == FORMAT_EXTENSIBLE && length >= 26) {
+                    formatTag = header.getShort(24) & 0xFFFF;
+                }
+            } else if (id == 0x61746164) {
+                if (formatTag == -1) {
+                    throw new SoundCreationException("Wave data found before format.");
+                }
+                return validate(formatTag, channels, sampleRate, bits, body, Math.min(length, size - body));
+            }
+            position = body + length + (length & 1);
+        }
+        throw new SoundCreationException("No wave data found.");
+    }
+
+    /**
+     * Convert little endian PCM samples to floats in [-1, 1].
+     *
+     * @param format  Format of the samples.
+     * @param source  Buffer to read from, starting at its position, must be little endian.
+     * @param target  Array to write to.
+     * @param offset  First index to write in the target.
+     * @param samples Number of samples (not frames) to convert.
+     */
+    static void toFloat(final WaveFormat format, final ByteBuffer source, final float[] target, final int offset, final int samples) {
+        int end = offset + samples;
+        if (format.floatingPoint) {
+            for (int i = offset; i < end; i++) {
+                target[i] = source.getFloat();
+            }
+            return;
+        }
+        switch (format.bitsPerSample) {
+            case 8:
+                for (int i = offset; i < end; i++) {
+                    target[i] = ((source.get() & 0xFF) - 128) / 128f;
+                }
+                break;
+            case 16:
+                for (int i = offset; i < end; i++) {
+                    target[i] = source.getShort() / 32768f;
+                }
+                break;
+            case 24:
+                for (int i = offset; i < end; i++) {
+                    int value = (source.get() & 0xFF) | ((source.get() & 0xFF) << 8) | (source.get() << 16);
+                    target[i] = value / 8388608f;
+                }
+                break;
+            default:
+                for (int i = offset; i < end; i++) {
+                    target[i] = source.getInt() / 2147483648f;
+                }
+                break;
+        }
+    }
+
+    private static WaveFormat validate(int tag, int channels, int sampleRate, int bits, long offset, long length) {
+        boolean floatingPoint = tag == FORMAT_FLOAT;
+        if (tag != FORMAT_PCM && !floatingPoint) {
+            throw new SoundCreationException("Unsupported wave encoding: " + tag);
+        }
+        if (floatingPoint ? bits != 32 : bits != 8 && bits != 16 && bits != 24 && bits != 32) {
+            throw new SoundCreationException("Unsupported wave sample size: " + bits);
+        }
+        if (channels < 1 || sampleRate < 1) {
+            throw new SoundCreationException("Invalid wave format.");
+        }
+        return new WaveFormat(channels, sampleRate, bits, floatingPoint, offset, length);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new SoundCreationException("Unexpected end of wave file.");
+            }
+        }
+    }
+}
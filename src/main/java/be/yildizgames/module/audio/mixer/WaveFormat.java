@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+/**
+ * Description of the PCM data contained in a wave file.
+ *
+ * @author Grégory Van den Borre
+ */
+final class WaveFormat {
+
+    /**
+     * Number of interleaved channels.
+     */
+    final int channels;
+
+    /**
+     * Number of frames per second.
+     */
+    final int sampleRate;
+
+    /**
+     * Size of one sample, in bits.
+     */
+    final int bitsPerSample;
+
+    /**
+     * True if the samples are IEEE floats, false if they are integers.
+     */
+    final boolean floatingPoint;
+
+    /**
+     * Position of the first sample in the file, in bytes.
+     */
+    final long dataOffset;
+
+    /**
+     * Size of the sample data, in bytes.
+     */
+    final long dataLength;
+
+    /**
+     * Full constructor.
+     *
+     * @param channels      Number of interleaved channels.
+     * @param sampleRate    Number of frames per second.
+     * @param bitsPerSample Size of one sample, in bits.
+     * @param floatingPoint True if the samples are IEEE floats.
+     * @param dataOffset    Position of the first sample in the file.
+     * @param dataLength    Size of the sample data.
+     */
+    WaveFormat(int channels, int sampleRate, int bitsPerSample, boolean floatingPoint, long dataOffset, long dataLength) {
+        super();
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.floatingPoint = floatingPoint;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    /**
+     * @return The size of one frame (one sample for every channel), in bytes.
+     */
+    int frameSize() {
+        return this.channels * (this.bitsPerSample / 8);
+    }
+
+    /**
+     * @return The number of complete frames in the sample data.
+     */
+    long frames() {
+        return this.dataLength / this.frameSize();
+    }
+}
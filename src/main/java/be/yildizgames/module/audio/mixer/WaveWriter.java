@@ -0,0 +1,144 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Output writing the mixed blocks to a channel as a stereo 32 bits float RIFF wave file.
+ * The number of frames is known when the file starts, so the header is written once and the channel does not need to be seekable.
+ *
+ * @author Grégory Van den Borre
+ */
+final class WaveWriter implements MixerOutput {
+
+    /**
+     * IEEE float format tag.
+     */
+    private static final int FORMAT_FLOAT = 3;
+
+    /**
+     * Number of interleaved channels written.
+     */
+    private static final int CHANNELS = 2;
+
+    /**
+     * Size of one frame, in bytes.
+     */
+    private static final int FRAME_SIZE = CHANNELS * Float.BYTES;
+
+    /**
+     * Size of the header, from the start of the file to the first sample, in bytes.
+     */
+    static final int HEADER_SIZE = 58;
+
+    /**
+     * Channel to write to.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Buffer holding the converted samples of a block, reused for every block.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Number of frames still to write, the frames received after are ignored.
+     */
+    private long remaining;
+
+    /**
+     * Create a writer and write the header.
+     *
+     * @param channel    Channel to write to, cannot be null.
+     * @param sampleRate Number of frames per second.
+     * @param frames     Number of frames of the file.
+     * @param blockSize  Maximum number of frames of a block.
+     *
+     * @throws UncheckedIOException If the header cannot be written.
+     * @throws IllegalArgumentException If the number of frames does not fit in a wave file.
+     */
+    WaveWriter(final WritableByteChannel channel, final int sampleRate, final long frames, final int blockSize) {
+        super();
+        long length = frames * FRAME_SIZE;
+        if (frames < 0 || length > 0xFFFFFFFFL - HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid number of frames for a wave file: " + frames);
+        }
+        this.channel = channel;
+        this.remaining = frames;
+        this.data = ByteBuffer.allocate(blockSize * FRAME_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0x46464952)
+                .putInt((int) (HEADER_SIZE - 8 + length))
+                .putInt(0x45564157)
+                .putInt(0x20746D66)
+                .putInt(18)
+                .putShort((short) FORMAT_FLOAT)
+                .putShort((short) CHANNELS)
+                .putInt(sampleRate)
+                .putInt(sampleRate * FRAME_SIZE)
+                .putShort((short) FRAME_SIZE)
+                .putShort((short) (Float.BYTES * 8))
+                .putShort((short) 0)
+                .putInt(0x74636166)
+                .putInt(4)
+                .putInt((int) frames)
+                .putInt(0x61746164)
+                .putInt((int) length);
+        this.writeFully(header.flip());
+    }
+
+    @Override
+    public void write(final float[] buffer, final int frames) {
+        int count = (int) Math.min(frames, this.remaining);
+        this.remaining -= count;
+        this.data.clear();
+        for (int i = 0; i < count * CHANNELS; i++) {
+            this.data.putFloat(buffer[i]);
+        }
+        this.writeFully(this.data.flip());
+    }
+
+    /**
+     * @return The number of frames still to write.
+     */
+    long getRemaining() {
+        return this.remaining;
+    }
+
+    private void writeFully(final ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -27,6 +27,15 @@ open module be.yildizgames.module.audio {
     requires be.yildizgames.common.util;
     requires be.yildizgames.common.file;
     requires be.yildizgames.common.gameobject;
+    requires jdk.jfr;
+    requires static jdk.incubator.vector;
 
     exports be.yildizgames.module.audio;
+    exports be.yildizgames.module.audio.mixer;
+    exports be.yildizgames.module.audio.jfr;
+
+    uses be.yildizgames.module.audio.AudioEngineProvider;
+
+    provides be.yildizgames.module.audio.AudioEngineProvider with be.yildizgames.module.audio.mixer.MixerAudioEngineProvider,
+            be.yildizgames.module.audio.mixer.OfflineAudioEngineProvider;
 }
\ No newline at end of file
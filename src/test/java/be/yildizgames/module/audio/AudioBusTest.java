@@ -0,0 +1,105 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class AudioBusTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void happyFlow() {
+            AudioBus master = new AudioBus(AudioBus.MASTER, null);
+            AudioBus bus = new AudioBus("sfx", master);
+            Assertions.assertEquals("sfx", bus.getName());
+            Assertions.assertSame(master, bus.getParent());
+            Assertions.assertEquals(1f, bus.getGain());
+            Assertions.assertFalse(bus.isMuted());
+            Assertions.assertFalse(bus.isPaused());
+            Assertions.assertEquals("master/sfx", bus.toString());
+        }
+
+        @Test
+        void withNullName() {
+            Assertions.assertThrows(NullPointerException.class, () -> new AudioBus(null, null));
+        }
+    }
+
+    @Nested
+    class SetGain {
+
+        @Test
+        void happyFlow() {
+            AudioBus bus = new AudioBus(AudioBus.MASTER, null).setGain(0.5f);
+            Assertions.assertEquals(0.5f, bus.getGain());
+        }
+
+        @Test
+        void invalid() {
+            AudioBus bus = new AudioBus(AudioBus.MASTER, null);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bus.setGain(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bus.setGain(Float.NaN));
+        }
+    }
+
+    @Nested
+    class EffectiveGain {
+
+        @Test
+        void parentsMultiplied() {
+            AudioBus master = new AudioBus(AudioBus.MASTER, null).setGain(0.5f);
+            AudioBus bus = new AudioBus("sfx", master).setGain(0.5f);
+            Assertions.assertEquals(0.25f, bus.getEffectiveGain());
+        }
+
+        @Test
+        void parentMuted() {
+            AudioBus master = new AudioBus(AudioBus.MASTER, null).mute();
+            AudioBus bus = new AudioBus("sfx", master);
+            Assertions.assertEquals(0f, bus.getEffectiveGain());
+            master.unmute();
+            Assertions.assertEquals(1f, bus.getEffectiveGain());
+        }
+    }
+
+    @Nested
+    class Pause {
+
+        @Test
+        void happyFlow() {
+            AudioBus bus = new AudioBus(AudioBus.MASTER, null).pause();
+            Assertions.assertTrue(bus.isPaused());
+            bus.resume();
+            Assertions.assertFalse(bus.isPaused());
+        }
+    }
+}
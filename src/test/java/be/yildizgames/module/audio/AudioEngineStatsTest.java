@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class AudioEngineStatsTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void happyFlow() {
+            long[] histogram = new long[AudioEngineStats.HISTOGRAM_BUCKETS];
+            histogram[3] = 2;
+            histogram[4] = 2;
+            AudioEngineStats stats = new AudioEngineStats(2, 1, histogram, 400, 0, 0, 0, 3, 1, 0);
+            histogram[3] = 0;
+            Assertions.assertEquals(4, stats.getMixCount());
+            Assertions.assertEquals(100, stats.getAverageMixNanos());
+            Assertions.assertEquals(0.75f, stats.getCacheHitRatio());
+        }
+
+        @Test
+        void invalidHistogram() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AudioEngineStats(0, 0, new long[2], 0, 0, 0, 0, 0, 0, 0));
+        }
+
+        @Test
+        void withNullHistogram() {
+            Assertions.assertThrows(NullPointerException.class, () -> new AudioEngineStats(0, 0, null, 0, 0, 0, 0, 0, 0, 0));
+        }
+    }
+
+    @Nested
+    class Bucket {
+
+        @Test
+        void bounds() {
+            Assertions.assertEquals(0, AudioEngineStats.bucket(999));
+            Assertions.assertEquals(1, AudioEngineStats.bucket(1_000));
+            Assertions.assertEquals(2, AudioEngineStats.bucket(2_000));
+            Assertions.assertEquals(2, AudioEngineStats.bucket(3_999));
+            Assertions.assertEquals(AudioEngineStats.HISTOGRAM_BUCKETS - 1, AudioEngineStats.bucket(Long.MAX_VALUE));
+            Assertions.assertEquals(4, AudioEngineStats.bucketBound(2));
+            Assertions.assertEquals(Long.MAX_VALUE, AudioEngineStats.bucketBound(AudioEngineStats.HISTOGRAM_BUCKETS - 1));
+        }
+    }
+}
@@ -28,6 +28,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Grégory Van den Borre
  */
@@ -49,8 +56,185 @@ class BaseAudioEngineTest {
         }*/
     }
 
+    @Nested
+    class CreateSoundAsync {
+
+        @Test
+        void happyFlow() throws Exception {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            SoundSource source = engine.createSoundAsync("a.wav").get(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(source);
+        }
+
+        @Test
+        void failure() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            CompletableFuture<SoundSource> result = engine.createSoundAsync("fail");
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(SoundCreationException.class, e.getCause());
+        }
+
+        @Test
+        void unexpectedFailureWrapped() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            CompletableFuture<SoundSource> result = engine.createSoundAsync("error");
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(SoundCreationException.class, e.getCause());
+        }
+
+        @Test
+        void concurrencyLimited() throws Exception {
+            TestBaseAudioEngine engine = new TestBaseAudioEngine();
+            engine.gate = new CountDownLatch(1);
+            engine.setLoadingConcurrency(2);
+            CompletableFuture<?>[] results = new CompletableFuture<?>[6];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = engine.createSoundAsync("a.wav");
+            }
+            Thread.sleep(100);
+            engine.gate.countDown();
+            CompletableFuture.allOf(results).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, engine.maxLoading.get());
+        }
+
+        @Test
+        void cancelled() throws Exception {
+            TestBaseAudioEngine engine = new TestBaseAudioEngine();
+            engine.gate = new CountDownLatch(1);
+            engine.setLoadingConcurrency(1);
+            CompletableFuture<SoundSource> first = engine.createSoundAsync("a.wav");
+            CompletableFuture<SoundSource> second = engine.createSoundAsync("a.wav");
+            Assertions.assertTrue(second.cancel(true));
+            engine.gate.countDown();
+            Assertions.assertNotNull(first.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(second.isCancelled());
+            Assertions.assertNotNull(engine.createSoundAsync("a.wav").get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        void invalidConcurrency() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.setLoadingConcurrency(0));
+        }
+
+        @Test
+        void withNull() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertThrows(NullPointerException.class, () -> engine.createSoundAsync(null));
+        }
+    }
+
+    @Nested
+    class Preload {
+
+        @Test
+        void happyFlow() throws Exception {
+            TestBaseAudioEngine engine = new TestBaseAudioEngine();
+            AudioPreload preload = engine.preload(List.of(AudioFile.file("a.wav"), AudioFile.vfs("b.wav")));
+            preload.getCompletion().get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, preload.getTotal());
+            Assertions.assertEquals(2, preload.getProcessed());
+            Assertions.assertEquals(0, preload.getFailed());
+            Assertions.assertEquals(1f, preload.getProgress());
+            Assertions.assertEquals(2, engine.preloaded.get());
+        }
+
+        @Test
+        void empty() {
+            AudioPreload preload = new TestBaseAudioEngine().preload(List.of());
+            Assertions.assertTrue(preload.getCompletion().isDone());
+            Assertions.assertEquals(1f, preload.getProgress());
+        }
+
+        @Test
+        void failure() {
+            TestBaseAudioEngine engine = new TestBaseAudioEngine();
+            AudioPreload preload = engine.preload(List.of(AudioFile.file("a.wav"), AudioFile.file("fail")));
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> preload.getCompletion().get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(SoundCreationException.class, e.getCause());
+            Assertions.assertEquals(1, e.getCause().getSuppressed().length);
+            Assertions.assertEquals(2, preload.getProcessed());
+            Assertions.assertEquals(1, preload.getFailed());
+            Assertions.assertEquals(1, engine.preloaded.get());
+        }
+
+        @Test
+        void playlist() throws Exception {
+            TestBaseAudioEngine engine = new TestBaseAudioEngine();
+            Playlist playlist = engine.createPlaylist().addMusic(Music.withName("a.wav", "a")).addMusic(Music.withName("b.wav", "b"));
+            AudioPreload preload = engine.preload(playlist);
+            preload.getCompletion().get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, preload.getProcessed());
+            Assertions.assertEquals(0, engine.preloaded.get());
+            Assertions.assertEquals(2, engine.preloadedNames.get());
+        }
+
+        @Test
+        void withNull() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertThrows(NullPointerException.class, () -> engine.preload((List<AudioFile>) null));
+        }
+    }
+
+    @Nested
+    class Bus {
+
+        @Test
+        void defaultBuses() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertNull(engine.getMasterBus().getParent());
+            Assertions.assertSame(engine.getMasterBus(), engine.getBus(AudioBus.MASTER));
+            Assertions.assertSame(engine.getMasterBus(), engine.getBus(AudioBus.MUSIC).getParent());
+            Assertions.assertSame(engine.getMasterBus(), engine.getBus(AudioBus.SFX).getParent());
+            Assertions.assertSame(engine.getMasterBus(), engine.getBus(AudioBus.VOICE).getParent());
+        }
+
+        @Test
+        void created() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            AudioBus bus = engine.createBus("ui", engine.getBus(AudioBus.SFX));
+            Assertions.assertSame(bus, engine.getBus("ui"));
+            Assertions.assertSame(engine.getBus(AudioBus.SFX), bus.getParent());
+        }
+
+        @Test
+        void alreadyExisting() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.createBus(AudioBus.SFX, engine.getMasterBus()));
+        }
+
+        @Test
+        void parentFromOtherEngine() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            AudioBus other = new TestBaseAudioEngine().getMasterBus();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.createBus("ui", other));
+        }
+
+        @Test
+        void notExisting() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.getBus("none"));
+        }
+
+        @Test
+        void playlistOnMusicBus() {
+            BaseAudioEngine engine = new TestBaseAudioEngine();
+            Assertions.assertSame(engine.getBus(AudioBus.MUSIC), engine.createPlaylist().getBus());
+        }
+    }
+
     private static class TestBaseAudioEngine extends BaseAudioEngine {
 
+        private final AtomicInteger preloaded = new AtomicInteger();
+
+        private final AtomicInteger preloadedNames = new AtomicInteger();
+
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        private final AtomicInteger loading = new AtomicInteger();
+
+        private final AtomicInteger maxLoading = new AtomicInteger();
+
         @Override
         public void update() {
 
@@ -66,8 +250,35 @@ class BaseAudioEngineTest {
             return this;
         }
 
+        @Override
+        protected void preloadImpl(AudioFile file) {
+            if ("fail".equals(file.name)) {
+                throw new SoundCreationException("Failed.");
+            }
+            this.preloaded.incrementAndGet();
+        }
+
+        @Override
+        protected void preloadImpl(String file) {
+            this.preloadedNames.incrementAndGet();
+        }
+
         @Override
         public SoundSource createSound(String file) {
+            if ("fail".equals(file)) {
+                throw new SoundCreationException("Failed.");
+            }
+            if ("error".equals(file)) {
+                throw new IllegalArgumentException("Error.");
+            }
+            this.maxLoading.accumulateAndGet(this.loading.incrementAndGet(), Math::max);
+            try {
+                this.gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.loading.decrementAndGet();
+            }
             return new EmptySoundSource();
         }
     }
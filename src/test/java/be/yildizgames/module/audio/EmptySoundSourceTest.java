@@ -57,11 +57,46 @@ class EmptySoundSourceTest {
         Assertions.assertNotNull(new EmptySoundSource().setGain(0));
     }
 
+    @Test
+    void fadeTo() {
+        Assertions.assertNotNull(new EmptySoundSource().fadeTo(0, 100));
+    }
+
     @Test
     void setPosition() {
         Assertions.assertNotNull(new EmptySoundSource().setPosition(Point3D.ZERO));
     }
 
+    @Test
+    void setPositionPrimitive() {
+        Assertions.assertNotNull(new EmptySoundSource().setPosition(1, 2, 3));
+    }
+
+    @Test
+    void setVelocity() {
+        Assertions.assertNotNull(new EmptySoundSource().setVelocity(1, 2, 3));
+    }
+
+    @Test
+    void setPitch() {
+        Assertions.assertNotNull(new EmptySoundSource().setPitch(2));
+    }
+
+    @Test
+    void setDirection() {
+        Assertions.assertNotNull(new EmptySoundSource().setDirection(1, 2, 3));
+    }
+
+    @Test
+    void chain() {
+        Assertions.assertNotNull(new EmptySoundSource().chain(new EmptySoundSource()));
+    }
+
+    @Test
+    void chainWithCrossfade() {
+        Assertions.assertNotNull(new EmptySoundSource().chain(new EmptySoundSource(), 100));
+    }
+
     @Test
     void delete() {
         Assertions.assertNotNull(new EmptySoundSource().delete());
@@ -0,0 +1,151 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class EndPlayDispatcherTest {
+
+    @Nested
+    class Dispatch {
+
+        @Test
+        void inPublishOrder() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            List<String> result = new ArrayList<>();
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> result.add("a"));
+            EndPlayListeners b = new EndPlayListeners();
+            b.add(() -> result.add("b"));
+            dispatcher.publish(a);
+            dispatcher.publish(b);
+            Assertions.assertTrue(result.isEmpty());
+            Assertions.assertEquals(2, dispatcher.dispatch());
+            Assertions.assertEquals(List.of("a", "b"), result);
+            Assertions.assertEquals(0, dispatcher.dispatch());
+        }
+
+        @Test
+        void publishedTwice() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            int[] calls = new int[1];
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> calls[0]++);
+            dispatcher.publish(a);
+            dispatcher.publish(a);
+            dispatcher.dispatch();
+            Assertions.assertEquals(2, calls[0]);
+            dispatcher.publish(a);
+            dispatcher.dispatch();
+            Assertions.assertEquals(3, calls[0]);
+        }
+
+        @Test
+        void clearedNotNotified() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            int[] calls = new int[1];
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> calls[0]++);
+            dispatcher.publish(a);
+            a.clear();
+            dispatcher.dispatch();
+            Assertions.assertEquals(0, calls[0]);
+        }
+
+        @Test
+        void failingListener() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            int[] calls = new int[1];
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> {throw new IllegalStateException();});
+            EndPlayListeners b = new EndPlayListeners();
+            b.add(() -> calls[0]++);
+            dispatcher.publish(a);
+            dispatcher.publish(b);
+            dispatcher.dispatch();
+            Assertions.assertEquals(1, calls[0]);
+        }
+    }
+
+    @Nested
+    class SetExecutor {
+
+        @Test
+        void deliveredByExecutor() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            List<Runnable> tasks = new ArrayList<>();
+            Executor executor = tasks::add;
+            int[] calls = new int[1];
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> calls[0]++);
+            dispatcher.setExecutor(executor);
+            dispatcher.publish(a);
+            dispatcher.publish(a);
+            Assertions.assertEquals(0, dispatcher.dispatch());
+            Assertions.assertEquals(1, tasks.size());
+            tasks.get(0).run();
+            Assertions.assertEquals(2, calls[0]);
+        }
+
+        @Test
+        void pendingScheduled() {
+            EndPlayDispatcher dispatcher = new EndPlayDispatcher();
+            List<Runnable> tasks = new ArrayList<>();
+            EndPlayListeners a = new EndPlayListeners();
+            a.add(() -> {});
+            dispatcher.publish(a);
+            dispatcher.setExecutor(tasks::add);
+            Assertions.assertEquals(1, tasks.size());
+        }
+    }
+
+    @Nested
+    class Listeners {
+
+        @Test
+        void addNull() {
+            Assertions.assertThrows(NullPointerException.class, () -> new EndPlayListeners().add(null));
+        }
+
+        @Test
+        void size() {
+            EndPlayListeners listeners = new EndPlayListeners();
+            listeners.add(() -> {});
+            listeners.add(() -> {});
+            Assertions.assertEquals(2, listeners.size());
+            listeners.clear();
+            Assertions.assertEquals(0, listeners.size());
+        }
+    }
+}
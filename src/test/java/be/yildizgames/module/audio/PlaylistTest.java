@@ -28,9 +28,14 @@ import be.yildizgames.module.audio.dummy.DummyAudioEngineProvider;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
-import java.security.InvalidParameterException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -73,6 +78,96 @@ class PlaylistTest {
         }
     }
 
+    @Nested
+    class Mode {
+
+        @Test
+        void sequentialByDefault() {
+            Playlist p = new Playlist("mode-default", new DummyAudioEngineProvider().getAudioEngine());
+            assertSame(PlaylistMode.SEQUENTIAL, p.getMode());
+        }
+
+        @Test
+        void shuffleAllOncePerCycle() {
+            Playlist p = new Playlist("mode-shuffle", new DummyAudioEngineProvider().getAudioEngine());
+            for (int i = 0; i < 5; i++) {
+                p.addMusic(Music.withName("file" + i, "name" + i));
+            }
+            p.setRandom(new Random(42));
+            p.setMode(PlaylistMode.SHUFFLE);
+            int previous = -1;
+            for (int cycle = 0; cycle < 50; cycle++) {
+                Set<Integer> played = new HashSet<>();
+                for (int i = 0; i < 5; i++) {
+                    int next = p.advance();
+                    assertNotEquals(previous, next);
+                    played.add(next);
+                    previous = next;
+                }
+                assertEquals(5, played.size());
+            }
+        }
+
+        @Test
+        void weightedFollowsWeights() {
+            Playlist p = new Playlist("mode-weighted", new DummyAudioEngineProvider().getAudioEngine());
+            p.addMusic(Music.withName("file0", "name0"), 1);
+            p.addMusic(Music.withName("file1", "name1"), 0);
+            p.addMusic(Music.withName("file2", "name2"), 3);
+            p.setRandom(new Random(42));
+            p.setMode(PlaylistMode.WEIGHTED);
+            int[] counts = new int[3];
+            for (int i = 0; i < 40000; i++) {
+                counts[p.advance()]++;
+            }
+            assertEquals(0, counts[1]);
+            assertEquals(10000, counts[0], 500);
+            assertEquals(30000, counts[2], 500);
+        }
+
+        @Test
+        void weightedAllZero() {
+            Playlist p = new Playlist("mode-weighted-zero", new DummyAudioEngineProvider().getAudioEngine());
+            p.addMusic(Music.withName("file0", "name0"), 0);
+            p.addMusic(Music.withName("file1", "name1"), 0);
+            p.setRandom(new Random(42));
+            p.setMode(PlaylistMode.WEIGHTED);
+            int[] counts = new int[2];
+            for (int i = 0; i < 10000; i++) {
+                counts[p.advance()]++;
+            }
+            assertEquals(5000, counts[0], 500);
+        }
+
+        @Test
+        void negativeWeight() {
+            Playlist p = new Playlist("mode-negative", new DummyAudioEngineProvider().getAudioEngine());
+            assertThrows(IllegalArgumentException.class, () -> p.addMusic(Music.withName("file", "name"), -1));
+        }
+
+        @Test
+        void withNull() {
+            Playlist p = new Playlist("mode-withNull", new DummyAudioEngineProvider().getAudioEngine());
+            assertThrows(NullPointerException.class, () -> p.setMode(null));
+        }
+    }
+
+    @Nested
+    class SetCrossfade {
+
+        @Test
+        void happyFlow() {
+            Playlist p = new Playlist("crossfade-happyFlow", new DummyAudioEngineProvider().getAudioEngine());
+            assertNotNull(p.setCrossfade(500));
+        }
+
+        @Test
+        void withNegative() {
+            Playlist p = new Playlist("crossfade-withNegative", new DummyAudioEngineProvider().getAudioEngine());
+            assertThrows(IllegalArgumentException.class, () -> p.setCrossfade(-1));
+        }
+    }
+
     @Nested
     class Next {
 
@@ -95,18 +190,59 @@ class PlaylistTest {
 
         @Test
         void happyFlow() {
-            new Playlist("get-happyFlow", new DummyAudioEngineProvider().getAudioEngine());
-            assertNotNull(Playlist.get("get-happyFlow"));
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            Playlist p = engine.createPlaylist("get-happyFlow");
+            assertSame(p, engine.getPlaylist("get-happyFlow"));
+        }
+
+        @Test
+        void perEngine() {
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            BaseAudioEngine other = new DummyAudioEngineProvider().getAudioEngine();
+            Playlist p = engine.createPlaylist("get-perEngine");
+            Playlist o = other.createPlaylist("get-perEngine");
+            assertSame(p, engine.getPlaylist("get-perEngine"));
+            assertSame(o, other.getPlaylist("get-perEngine"));
+        }
+
+        @Test
+        void alreadyExisting() {
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            engine.createPlaylist("get-alreadyExisting");
+            assertThrows(IllegalArgumentException.class, () -> engine.createPlaylist("get-alreadyExisting"));
         }
 
         @Test
         void withNull() {
-            assertThrows(NullPointerException.class, () -> Playlist.get(null));
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            assertThrows(NullPointerException.class, () -> engine.getPlaylist(null));
         }
 
         @Test
         void withNoResult() {
-            assertThrows(InvalidParameterException.class, () -> Playlist.get("notExisting"));
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            assertThrows(IllegalArgumentException.class, () -> engine.getPlaylist("notExisting"));
+        }
+    }
+
+    @Nested
+    class Close {
+
+        @Test
+        void unregistered() {
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            Playlist p = engine.createPlaylist("close-unregistered");
+            p.close();
+            assertThrows(IllegalArgumentException.class, () -> engine.getPlaylist("close-unregistered"));
+            assertNotNull(engine.createPlaylist("close-unregistered"));
+        }
+
+        @Test
+        void engineClosed() {
+            BaseAudioEngine engine = new DummyAudioEngineProvider().getAudioEngine();
+            engine.createPlaylist("close-engineClosed");
+            engine.close();
+            assertThrows(IllegalArgumentException.class, () -> engine.getPlaylist("close-engineClosed"));
         }
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class BufferReaderTest {
+
+    private final List<Thread> decoders = new ArrayList<>();
+
+    private SampleCache givenACache() {
+        return new SampleCache(1, p -> {
+            this.decoders.add(Thread.currentThread());
+            return new SampleBuffer(new float[4], 1, 48000);
+        });
+    }
+
+    @Nested
+    class Prepare {
+
+        @Test
+        void evictedDecodedByCaller() throws InterruptedException {
+            SampleCache cache = givenACache();
+            BufferReader reader = new BufferReader(cache, cache.get(Paths.get("a.wav")));
+            cache.get(Paths.get("b.wav"));
+            reader.prepare();
+            Assertions.assertEquals(3, decoders.size());
+            Thread audio = Thread.ofPlatform().start(reader::start);
+            audio.join();
+            Assertions.assertEquals(3, decoders.size());
+            Assertions.assertEquals(4, reader.remaining());
+        }
+
+        @Test
+        void pinnedUntilStarted() {
+            SampleCache cache = givenACache();
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            BufferReader reader = new BufferReader(cache, a);
+            reader.prepare();
+            cache.get(Paths.get("b.wav"));
+            Assertions.assertNotNull(a.getBuffer());
+            reader.start();
+            reader.stop();
+            Assertions.assertFalse(a.isPlaying());
+        }
+
+        @Test
+        void releasedOnClose() {
+            SampleCache cache = givenACache();
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            BufferReader reader = new BufferReader(cache, a);
+            reader.prepare();
+            reader.prepare();
+            reader.close();
+            Assertions.assertFalse(a.isPlaying());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class CommandQueueTest {
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void roundedToPowerOfTwo() {
+            Assertions.assertEquals(8, new CommandQueue(5).capacity());
+        }
+
+        @Test
+        void tooSmall() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new CommandQueue(1));
+        }
+    }
+
+    @Nested
+    class Drain {
+
+        @Test
+        void inOrder() {
+            CommandQueue queue = new CommandQueue(4);
+            List<String> result = new ArrayList<>();
+            for (int round = 0; round < 3; round++) {
+                queue.push(1, "a", null, 1f, 2f, 3f, 4L);
+                queue.push(2, "b", "arg", 0f, 0f, 0f, 0L);
+                queue.drain((o, t, a, x, y, z, v) -> result.add(o + ":" + t + ":" + a + ":" + x + ":" + y + ":" + z + ":" + v), 10);
+            }
+            Assertions.assertEquals(6, result.size());
+            Assertions.assertEquals("1:a:null:1.0:2.0:3.0:4", result.get(4));
+            Assertions.assertEquals("2:b:arg:0.0:0.0:0.0:0", result.get(5));
+        }
+
+        @Test
+        void limited() {
+            CommandQueue queue = new CommandQueue(4);
+            queue.push(1, null, null, 0, 0, 0, 0);
+            queue.push(2, null, null, 0, 0, 0, 0);
+            Assertions.assertEquals(1, queue.drain((o, t, a, x, y, z, v) -> {}, 1));
+            Assertions.assertEquals(1, queue.drain((o, t, a, x, y, z, v) -> {}, 10));
+            Assertions.assertEquals(0, queue.drain((o, t, a, x, y, z, v) -> {}, 10));
+        }
+
+        @Test
+        void overflowWhenFull() {
+            CommandQueue queue = new CommandQueue(2);
+            for (int i = 0; i < 5; i++) {
+                queue.push(1, null, null, 0, 0, 0, i);
+            }
+            Assertions.assertEquals(3, queue.getOverflowCount());
+            List<Long> result = new ArrayList<>();
+            Assertions.assertEquals(3, queue.drain((o, t, a, x, y, z, v) -> result.add(v), 3));
+            queue.push(1, null, null, 0, 0, 0, 5);
+            Assertions.assertEquals(3, queue.drain((o, t, a, x, y, z, v) -> result.add(v), 10));
+            Assertions.assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), result);
+        }
+
+        @Test
+        void manyProducers() throws InterruptedException {
+            CommandQueue queue = new CommandQueue(16);
+            int producers = 4;
+            int commands = 10000;
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                int id = p;
+                threads[p] = Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < commands; i++) {
+                        queue.push(id, null, null, 0, 0, 0, i);
+                    }
+                });
+            }
+            long[] next = new long[producers];
+            boolean[] ordered = {true};
+            int received = 0;
+            while (received < producers * commands) {
+                received += queue.drain((o, t, a, x, y, z, v) -> {
+                    ordered[0] &= next[o] == v;
+                    next[o] = v + 1;
+                }, 64);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assertions.assertTrue(ordered[0]);
+            Assertions.assertEquals(0, queue.drain((o, t, a, x, y, z, v) -> {}, 64));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class MixKernelTest {
+
+    private static float[] givenRandomSamples(Random random, int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = random.nextFloat() * 4 - 2;
+        }
+        return samples;
+    }
+
+    @Nested
+    class Vectorized {
+
+        @Test
+        void selected() {
+            Assertions.assertTrue(MixKernel.VECTORIZED);
+        }
+    }
+
+    @Nested
+    class Accumulate {
+
+        @Test
+        void bitIdentical() {
+            Random random = new Random(42);
+            for (int channels = 1; channels <= 3; channels++) {
+                for (int frames = 0; frames < 70; frames++) {
+                    float[] source = givenRandomSamples(random, (frames + 3) * channels);
+                    float[] expected = givenRandomSamples(random, (frames + 5) * 2);
+                    float[] result = expected.clone();
+                    MixKernel.accumulateScalar(source, 3, channels, expected, 5, frames, 0.3f, 0.7f);
+                    VectorMixKernel.accumulate(source, 3, channels, result, 5, frames, 0.3f, 0.7f);
+                    Assertions.assertArrayEquals(expected, result);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class AccumulateRamp {
+
+        @Test
+        void bitIdentical() {
+            Random random = new Random(42);
+            for (int channels = 1; channels <= 3; channels++) {
+                for (int frames = 0; frames < 70; frames++) {
+                    float[] source = givenRandomSamples(random, (frames + 3) * channels);
+                    float[] expected = givenRandomSamples(random, (frames + 5) * 2);
+                    float[] result = expected.clone();
+                    MixKernel.accumulateRampScalar(source, 3, channels, expected, 5, frames, 0.3f, 0.7f, 0.9f, -0.013f);
+                    VectorMixKernel.accumulateRamp(source, 3, channels, result, 5, frames, 0.3f, 0.7f, 0.9f, -0.013f);
+                    Assertions.assertArrayEquals(expected, result);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class Clamp {
+
+        @Test
+        void bitIdentical() {
+            Random random = new Random(42);
+            for (int length = 0; length < 70; length++) {
+                float[] expected = givenRandomSamples(random, length);
+                if (length > 3) {
+                    expected[1] = Float.NaN;
+                    expected[2] = -0f;
+                    expected[3] = Float.NEGATIVE_INFINITY;
+                }
+                float[] result = expected.clone();
+                MixKernel.clampScalar(expected, 0, length);
+                VectorMixKernel.clamp(result, length);
+                Assertions.assertArrayEquals(expected, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,1000 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.common.geometry.Point3D;
+import be.yildizgames.module.audio.AudioBus;
+import be.yildizgames.module.audio.AudioEngineStats;
+import be.yildizgames.module.audio.AudioFile;
+import be.yildizgames.module.audio.AudioPreload;
+import be.yildizgames.module.audio.Music;
+import be.yildizgames.module.audio.Playlist;
+import be.yildizgames.module.audio.SoundCreationException;
+import be.yildizgames.module.audio.SoundSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class MixerAudioEngineTest {
+
+    @TempDir
+    Path folder;
+
+    private MixerAudioEngine givenAnEngine(int blockSize) {
+        MixerAudioEngine engine = new MixerAudioEngine(MixerAudioEngine.DEFAULT_SAMPLE_RATE, blockSize);
+        engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+        return engine;
+    }
+
+    @Nested
+    class CreateSound {
+
+        @Test
+        void happyFlow() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            SoundSource source = givenAnEngine(4).createSound("a.wav");
+            Assertions.assertNotNull(source);
+            Assertions.assertFalse(source.isPlaying());
+        }
+
+        @Test
+        void shareDecodedBuffer() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.createSound("a.wav");
+            engine.createSound("a.wav");
+            Assertions.assertEquals(1, engine.getCache().size());
+            Assertions.assertEquals(1, engine.getCache().getHits());
+            Assertions.assertEquals(40, engine.getResidentBytes());
+        }
+
+        @Test
+        void reloadEvicted() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            WaveFiles.constant(folder.resolve("b.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMemoryBudget(40);
+            SoundSource a = engine.createSound("a.wav");
+            engine.createSound("b.wav");
+            Assertions.assertEquals(40, engine.getResidentBytes());
+            a.play();
+            Assertions.assertTrue(a.isPlaying());
+            Assertions.assertEquals(40, engine.getResidentBytes());
+        }
+
+        @Test
+        void convertedToEngineRate() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2205, (short) 16384, 22050);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").play();
+            engine.update();
+            Assertions.assertEquals(4800 * Float.BYTES, engine.getResidentBytes());
+        }
+
+        @Test
+        void notFound() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(SoundCreationException.class, () -> engine.createSound("none.wav"));
+        }
+
+        @Test
+        void withNull() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(NullPointerException.class, () -> engine.createSound((String) null));
+        }
+    }
+
+    @Nested
+    class CreateMappedSound {
+
+        @Test
+        void happyFlow() throws IOException {
+            WaveFiles.pcm16(folder.resolve("a.wav"), 1, 48000, (short) 16384, (short) -16384, (short) 8192);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound(AudioFile.file("a.wav")).play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, -0.5f, -0.5f, 0.25f, 0.25f, 0f, 0f}, result);
+            Assertions.assertFalse(source.isPlaying());
+            Assertions.assertEquals(0, engine.getResidentBytes());
+            Assertions.assertEquals(6, engine.getMappedBytes());
+        }
+
+        @Test
+        void convertedWhilePlaying() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 100, (short) 16384, 24000);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound(AudioFile.file("a.wav")).play();
+            for (int i = 0; i < 6; i++) {
+                engine.update();
+            }
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f}, result, 1e-5f);
+        }
+
+        @Test
+        void mappingShared() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.createSound(AudioFile.file("a.wav"));
+            engine.createSound(AudioFile.file("a.wav"));
+            Assertions.assertEquals(20, engine.getMappedBytes());
+        }
+
+        @Test
+        void loop() throws IOException {
+            WaveFiles.float32(folder.resolve("a.wav"), 2, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound(AudioFile.file("a.wav")).loop().play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.1f, 0.2f}, result);
+        }
+
+        @Test
+        void vfsDecoded() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.createSound(AudioFile.vfs("a.wav"));
+            Assertions.assertEquals(40, engine.getResidentBytes());
+            Assertions.assertEquals(0, engine.getMappedBytes());
+        }
+
+        @Test
+        void notFound() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(SoundCreationException.class, () -> engine.createSound(AudioFile.file("none.wav")));
+        }
+    }
+
+    @Nested
+    class Preload {
+
+        @Test
+        void decoded() throws Exception {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            WaveFiles.constant(folder.resolve("b.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.preload(List.of(AudioFile.vfs("a.wav"), AudioFile.vfs("b.wav"))).getCompletion().get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, engine.getCache().size());
+            Assertions.assertEquals(80, engine.getResidentBytes());
+        }
+
+        @Test
+        void mapped() throws Exception {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.preload(List.of(AudioFile.file("a.wav"))).getCompletion().get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(20, engine.getMappedBytes());
+            Assertions.assertEquals(0, engine.getResidentBytes());
+        }
+
+        @Test
+        void notFound() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            AudioPreload preload = engine.preload(List.of(AudioFile.vfs("none.wav")));
+            Assertions.assertThrows(ExecutionException.class, () -> preload.getCompletion().get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, preload.getFailed());
+        }
+
+        @Test
+        void playlistPlayedFromCache() throws Exception {
+            WaveFiles.constant(folder.resolve("a.wav"), 4, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            Playlist playlist = engine.createPlaylist().addMusic(Music.withName("a.wav", "a"));
+            engine.preload(playlist).getCompletion().get(5, TimeUnit.SECONDS);
+            long misses = engine.getCache().getMisses();
+            playlist.playNext();
+            engine.update();
+            Assertions.assertEquals(misses, engine.getCache().getMisses());
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f}, result);
+        }
+    }
+
+    @Nested
+    class CreateStream {
+
+        @Test
+        void happyFlow() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 20000, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createStream("a.wav").play();
+            engine.update();
+            Assertions.assertTrue(source.isPlaying());
+            Assertions.assertEquals(0.5f, result[0]);
+            Assertions.assertEquals(0, engine.getResidentBytes());
+        }
+
+        @Test
+        void endNotified() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 6, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            AtomicInteger calls = new AtomicInteger();
+            engine.createStream("a.wav").addEndPlayListener(calls::incrementAndGet).play();
+            engine.update();
+            engine.update();
+            Assertions.assertEquals(1, calls.get());
+        }
+
+        @Test
+        void notFound() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(SoundCreationException.class, () -> engine.createStream("none.wav"));
+        }
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void mixPlayingSource() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").setGain(0.5f).play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f}, result);
+        }
+
+        @Test
+        void sumAndClamp() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 24576);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").play();
+            engine.createSound("a.wav").play();
+            engine.update();
+            Assertions.assertEquals(1f, result[0]);
+        }
+
+        @Test
+        void endNotified() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 6, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            AtomicInteger calls = new AtomicInteger();
+            SoundSource source = engine.createSound("a.wav").addEndPlayListener(calls::incrementAndGet).play();
+            engine.update();
+            Assertions.assertTrue(source.isPlaying());
+            Assertions.assertEquals(0, calls.get());
+            engine.update();
+            Assertions.assertFalse(source.isPlaying());
+            Assertions.assertEquals(1, calls.get());
+        }
+
+        @Test
+        void endNotifiedOnExecutor() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            List<Runnable> tasks = new ArrayList<>();
+            engine.setEndPlayExecutor(tasks::add);
+            AtomicInteger calls = new AtomicInteger();
+            engine.createSound("a.wav").addEndPlayListener(calls::incrementAndGet).play();
+            engine.update();
+            Assertions.assertEquals(0, calls.get());
+            Assertions.assertEquals(1, tasks.size());
+            tasks.get(0).run();
+            Assertions.assertEquals(1, calls.get());
+        }
+
+        @Test
+        void loop() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 3, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").loop().play();
+            engine.update();
+            engine.update();
+            Assertions.assertTrue(source.isPlaying());
+            Assertions.assertEquals(0.5f, result[7]);
+        }
+
+        @Test
+        void stopNotNotified() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 6, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            AtomicInteger calls = new AtomicInteger();
+            SoundSource source = engine.createSound("a.wav").addEndPlayListener(calls::incrementAndGet).play();
+            source.stop();
+            engine.update();
+            engine.update();
+            Assertions.assertEquals(0, calls.get());
+        }
+
+        @Test
+        void outOfRangeIsSilent() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxDistance(10);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").setPosition(Point3D.valueOf(20, 0, 0)).play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[8], result);
+        }
+
+        @Test
+        void panning() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").setPosition(Point3D.valueOf(-2, 0, 0)).play();
+            engine.update();
+            Assertions.assertTrue(result[0] > result[1]);
+        }
+    }
+
+    @Nested
+    class Spatial {
+
+        @Test
+        void primitivePositionSameAsPoint() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").setPosition(Point3D.valueOf(-2, 0, 3)).play();
+            engine.update();
+            float[] expected = result.clone();
+            source.stop().setPosition(-2, 0, 3).play();
+            engine.update();
+            Assertions.assertArrayEquals(expected, result);
+        }
+
+        @Test
+        void movedWhilePlaying() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").setPosition(-2, 0, 0).play();
+            engine.update();
+            Assertions.assertTrue(result[0] > result[1]);
+            source.setPosition(2, 0, 0);
+            engine.update();
+            Assertions.assertTrue(result[0] < result[1]);
+        }
+
+        @Test
+        void directionAwayIsQuieter() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").setPosition(0, 0, 5).setDirection(0, 0, -1).play();
+            engine.update();
+            float facing = result[0];
+            source.setDirection(0, 0, 1);
+            engine.update();
+            Assertions.assertEquals(facing * 0.25f, result[0], 1e-6f);
+        }
+
+        @Test
+        void velocityDoesNotChangeGain() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").setPosition(0, 0, 5).play();
+            engine.update();
+            float expected = result[0];
+            source.setVelocity(3, 0, 0);
+            engine.update();
+            Assertions.assertEquals(expected, result[0]);
+        }
+    }
+
+    @Nested
+    class VoiceLimit {
+
+        @Test
+        void mostAudibleMixed() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource quiet = engine.createSound("a.wav").setGain(0.25f).play();
+            engine.createSound("a.wav").setGain(0.5f).play();
+            engine.update();
+            Assertions.assertEquals(0.25f, result[0]);
+            Assertions.assertEquals(1, engine.getVirtualVoiceCount());
+            Assertions.assertTrue(quiet.isPlaying());
+        }
+
+        @Test
+        void virtualVoiceAdvances() throws IOException {
+            WaveFiles.float32(folder.resolve("q.wav"), 1, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f);
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("q.wav").setGain(0.5f).play();
+            SoundSource loud = engine.createSound("a.wav").play();
+            engine.update();
+            loud.stop();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.25f, 0.25f, 0.3f, 0.3f, 0.35f, 0.35f, 0.4f, 0.4f}, result, 1e-6f);
+            Assertions.assertEquals(0, engine.getVirtualVoiceCount());
+        }
+
+        @Test
+        void virtualVoiceEndNotified() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2, (short) 16384);
+            WaveFiles.constant(folder.resolve("b.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            AtomicInteger calls = new AtomicInteger();
+            SoundSource quiet = engine.createSound("a.wav").setGain(0.1f).addEndPlayListener(calls::incrementAndGet).play();
+            engine.createSound("b.wav").play();
+            engine.update();
+            Assertions.assertFalse(quiet.isPlaying());
+            Assertions.assertEquals(1, calls.get());
+        }
+
+        @Test
+        void invalid() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.setMaxVoices(0));
+        }
+    }
+
+    @Nested
+    class Bus {
+
+        @Test
+        void gainApplied() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.getMasterBus().setGain(0.5f);
+            engine.update();
+            engine.getBus(AudioBus.SFX).setGain(0.5f);
+            engine.update();
+            engine.createSound("a.wav").play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.125f, 0.125f, 0.125f, 0.125f, 0.125f, 0.125f, 0.125f, 0.125f}, result);
+        }
+
+        @Test
+        void gainRamped() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.createSound("a.wav").play();
+            engine.update();
+            engine.getBus(AudioBus.SFX).setGain(0f);
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.375f, 0.375f, 0.25f, 0.25f, 0.125f, 0.125f}, result);
+        }
+
+        @Test
+        void mutedStillAdvancing() throws IOException {
+            WaveFiles.float32(folder.resolve("q.wav"), 1, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f, 0.9f, 1f);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            AudioBus bus = engine.createBus("ui", engine.getBus(AudioBus.SFX));
+            engine.createSound("q.wav", bus).play();
+            engine.getBus(AudioBus.SFX).mute();
+            engine.update();
+            Assertions.assertArrayEquals(new float[8], result);
+            Assertions.assertEquals(1, engine.getVirtualVoiceCount());
+            engine.getBus(AudioBus.SFX).unmute();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0f, 0f, 0.15f, 0.15f, 0.35f, 0.35f, 0.6f, 0.6f}, result, 1e-6f);
+        }
+
+        @Test
+        void pausedNotAdvancing() throws IOException {
+            WaveFiles.float32(folder.resolve("q.wav"), 1, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("q.wav").play();
+            engine.getMasterBus().pause();
+            engine.update();
+            engine.update();
+            Assertions.assertArrayEquals(new float[8], result);
+            Assertions.assertTrue(source.isPlaying());
+            engine.getMasterBus().resume();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.1f, 0.1f, 0.2f, 0.2f, 0.3f, 0.3f, 0.4f, 0.4f}, result, 1e-6f);
+        }
+
+        @Test
+        void streamOnMusicBus() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.getBus(AudioBus.MUSIC).mute();
+            engine.update();
+            engine.createStream("a.wav").play();
+            engine.createSound("a.wav").setGain(0.5f).play();
+            engine.update();
+            Assertions.assertEquals(0.25f, result[0]);
+        }
+
+        @Test
+        void fromOtherEngine() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            AudioBus other = givenAnEngine(4).getBus(AudioBus.SFX);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.createSound("a.wav", other));
+        }
+    }
+
+    @Nested
+    class OneShot {
+
+        @Test
+        void played() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            engine.playOneShot("a.wav", -2, 0, 0, 0.5f);
+            engine.update();
+            Assertions.assertTrue(result[0] > 0);
+            Assertions.assertEquals(0f, result[1]);
+        }
+
+        @Test
+        void voiceBackInPool() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            OneShotPool pool = engine.getOneShotPool();
+            engine.playOneShot("a.wav", 0, 0, 0, 1);
+            Assertions.assertEquals(pool.size() - 1, pool.getFreeCount());
+            engine.update();
+            Assertions.assertEquals(pool.size(), pool.getFreeCount());
+            Assertions.assertFalse(engine.getCache().find(folder.resolve("a.wav")).isPlaying());
+        }
+
+        @Test
+        void oldestReused() throws IOException {
+            WaveFiles.float32(folder.resolve("q.wav"), 1, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f);
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            OneShotPool pool = engine.getOneShotPool();
+            engine.playOneShot("a.wav", 0, 0, 0, 1);
+            for (int i = 1; i < pool.size(); i++) {
+                engine.playOneShot("a.wav", 0, 0, 0, 0.01f);
+            }
+            engine.playOneShot("q.wav", 0, 0, 0, 1);
+            Assertions.assertEquals(0, pool.getFreeCount());
+            engine.update();
+            Assertions.assertEquals(0.1f * (float) Math.cos(Math.PI / 4), result[0], 1e-5f);
+        }
+
+        @Test
+        void evictedForgotten() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.playOneShot("a.wav", 0, 0, 0, 1);
+            engine.update();
+            Assertions.assertEquals(1, engine.getOneShotFileCount());
+            engine.setCacheCapacity(0);
+            Assertions.assertEquals(0, engine.getOneShotFileCount());
+            engine.setCacheCapacity(10);
+            engine.playOneShot("a.wav", 0, 0, 0, 1);
+            Assertions.assertEquals(1, engine.getOneShotFileCount());
+        }
+
+        @Test
+        void notFound() {
+            MixerAudioEngine engine = givenAnEngine(4);
+            Assertions.assertThrows(SoundCreationException.class, () -> engine.playOneShot("none.wav", 0, 0, 0, 1));
+        }
+    }
+
+    @Nested
+    class Pitch {
+
+        @Test
+        void octaveHigher() throws IOException {
+            WaveFiles.float32(folder.resolve("q.wav"), 1, 48000, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("q.wav").setGain(0.4f).setPitch(2).play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.04f, 0.04f, 0.12f, 0.12f, 0.2f, 0.2f, 0.28f, 0.28f}, result, 1e-6f);
+            engine.update();
+            Assertions.assertFalse(source.isPlaying());
+        }
+
+        @Test
+        void qualityFollowsAudibility() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            MixerSoundSource loud = (MixerSoundSource) engine.createSound("a.wav").setPitch(1.5f).play();
+            MixerSoundSource quiet = (MixerSoundSource) engine.createSound("a.wav").setGain(0.05f).setPitch(1.5f).play();
+            MixerSoundSource unpitched = (MixerSoundSource) engine.createSound("a.wav").play();
+            engine.update();
+            Assertions.assertEquals(Interpolation.SINC, loud.getInterpolation());
+            Assertions.assertEquals(Interpolation.LINEAR, quiet.getInterpolation());
+            Assertions.assertNull(unpitched.getInterpolation());
+        }
+
+        @Test
+        void levels() {
+            Assertions.assertEquals(Interpolation.SINC, Mixer.quality(1f, 0, false));
+            Assertions.assertEquals(Interpolation.CUBIC, Mixer.quality(1f, Mixer.MAX_SINC_VOICES, false));
+            Assertions.assertEquals(Interpolation.CUBIC, Mixer.quality(0.2f, 0, false));
+            Assertions.assertEquals(Interpolation.LINEAR, Mixer.quality(0.05f, 0, false));
+            Assertions.assertEquals(Interpolation.NEAREST, Mixer.quality(0.01f, 0, false));
+        }
+
+        @Test
+        void streamedLevels() {
+            Assertions.assertEquals(Interpolation.CUBIC, Mixer.quality(1f, 0, true));
+            Assertions.assertEquals(Interpolation.LINEAR, Mixer.quality(0.05f, 0, true));
+        }
+
+        @Test
+        void streamAtMostCubic() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            MixerSoundSource stream = (MixerSoundSource) engine.createStream("a.wav").setPitch(1.5f).play();
+            MixerSoundSource converted = (MixerSoundSource) engine.createStream(
+                    WaveFiles.constant(folder.resolve("b.wav"), 10, (short) 16384, 22050).getFileName().toString()).play();
+            engine.update();
+            Assertions.assertTrue(stream.isStreamed());
+            Assertions.assertEquals(Interpolation.CUBIC, stream.getInterpolation());
+            Assertions.assertEquals(Interpolation.CUBIC, converted.getInterpolation());
+        }
+
+        @Test
+        void invalid() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            SoundSource source = engine.createSound("a.wav");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> source.setPitch(0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> source.setPitch(Float.NaN));
+        }
+    }
+
+    @Nested
+    class Stats {
+
+        @Test
+        void empty() {
+            AudioEngineStats stats = givenAnEngine(4).getStats();
+            Assertions.assertEquals(0, stats.getMixCount());
+            Assertions.assertEquals(0, stats.getRealVoices());
+            Assertions.assertEquals(0f, stats.getCacheHitRatio());
+        }
+
+        @Test
+        void voicesAndMixes() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            engine.createSound("a.wav").play();
+            engine.createSound("a.wav").play();
+            engine.update();
+            engine.update();
+            AudioEngineStats stats = engine.getStats();
+            Assertions.assertEquals(1, stats.getRealVoices());
+            Assertions.assertEquals(1, stats.getVirtualVoices());
+            Assertions.assertEquals(2, stats.getMixCount());
+            Assertions.assertTrue(stats.getMixNanos() > 0);
+        }
+
+        @Test
+        void decodeAndCache() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            engine.createSound("a.wav");
+            engine.createSound("a.wav");
+            AudioEngineStats stats = engine.getStats();
+            Assertions.assertEquals(1, stats.getDecodeCount());
+            Assertions.assertTrue(stats.getDecodeNanos() > 0);
+            Assertions.assertEquals(1, stats.getCacheHits());
+            Assertions.assertEquals(1, stats.getCacheMisses());
+            Assertions.assertEquals(0.5f, stats.getCacheHitRatio());
+            Assertions.assertEquals(40, stats.getResidentBytes());
+        }
+    }
+
+    @Nested
+    class FlightRecorder {
+
+        @Test
+        void eventsRecorded() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxVoices(1);
+            Path dump = folder.resolve("audio.jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("be.yildizgames.audio.SoundCreation");
+                recording.enable("be.yildizgames.audio.SoundDecode");
+                recording.enable("be.yildizgames.audio.VoiceStart");
+                recording.enable("be.yildizgames.audio.VoiceStop");
+                recording.enable("be.yildizgames.audio.VoiceSteal");
+                recording.start();
+                engine.createSound("a.wav").play();
+                engine.createSound("a.wav").setGain(0.5f).play();
+                Assertions.assertThrows(SoundCreationException.class, () -> engine.createSound("none.wav"));
+                engine.update();
+                engine.update();
+                engine.update();
+                recording.stop();
+                recording.dump(dump);
+            }
+            List<String> names = RecordingFile.readAllEvents(dump).stream().map(e -> e.getEventType().getName()).toList();
+            Assertions.assertEquals(3, names.stream().filter("be.yildizgames.audio.SoundCreation"::equals).count());
+            Assertions.assertEquals(1, names.stream().filter("be.yildizgames.audio.SoundDecode"::equals).count());
+            Assertions.assertEquals(2, names.stream().filter("be.yildizgames.audio.VoiceStart"::equals).count());
+            Assertions.assertEquals(2, names.stream().filter("be.yildizgames.audio.VoiceStop"::equals).count());
+            Assertions.assertEquals(1, names.stream().filter("be.yildizgames.audio.VoiceSteal"::equals).count());
+        }
+    }
+
+    @Nested
+    class Culling {
+
+        @Test
+        void farSourceIsVirtual() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxDistance(10);
+            SoundSource source = engine.createSound("a.wav").setPosition(Point3D.valueOf(100, 0, 0)).play();
+            engine.update();
+            Assertions.assertEquals(1, engine.getVirtualVoiceCount());
+            Assertions.assertTrue(source.isPlaying());
+        }
+
+        @Test
+        void movedCloseIsMixed() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxDistance(10);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource source = engine.createSound("a.wav").setPosition(Point3D.valueOf(100, 0, 0)).play();
+            engine.update();
+            source.setPosition(Point3D.valueOf(0, 0, 0));
+            engine.update();
+            Assertions.assertEquals(0, engine.getVirtualVoiceCount());
+            Assertions.assertTrue(result[0] > 0);
+        }
+
+        @Test
+        void maxDistanceChangedWhilePlaying() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setMaxDistance(10);
+            engine.createSound("a.wav").setPosition(Point3D.valueOf(50, 0, 0)).play();
+            engine.update();
+            Assertions.assertEquals(1, engine.getVirtualVoiceCount());
+            engine.setMaxDistance(200);
+            engine.update();
+            Assertions.assertEquals(0, engine.getVirtualVoiceCount());
+        }
+    }
+
+    @Nested
+    class Chain {
+
+        @Test
+        void sampleAccurate() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 6, (short) 16384);
+            WaveFiles.constant(folder.resolve("b.wav"), 6, (short) 8192);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource b = engine.createSound("b.wav");
+            engine.createSound("a.wav").play().chain(b);
+            engine.update();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.25f, 0.25f, 0.25f, 0.25f}, result);
+            Assertions.assertTrue(b.isPlaying());
+        }
+
+        @Test
+        void deletedNotStarted() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 2, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            SoundSource b = engine.createStream("a.wav");
+            engine.createSound("a.wav").play().chain(b);
+            b.delete();
+            engine.update();
+            Assertions.assertFalse(b.isPlaying());
+        }
+    }
+
+    @Nested
+    class Fade {
+
+        @Test
+        void fadeTo() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384, 4000);
+            MixerAudioEngine engine = new MixerAudioEngine(4000, 4);
+            engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+            float[] result = new float[16];
+            int[] block = new int[1];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, block[0]++ * 8, frames * 2));
+            engine.createSound("a.wav").play().fadeTo(0f, 1);
+            engine.update();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.375f, 0.375f, 0.25f, 0.25f, 0.125f, 0.125f,
+                    0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f}, result);
+        }
+
+        @Test
+        void crossfade() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 8, (short) 16384, 4000);
+            WaveFiles.constant(folder.resolve("b.wav"), 8, (short) 8192, 4000);
+            MixerAudioEngine engine = new MixerAudioEngine(4000, 4);
+            engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+            float[] result = new float[24];
+            int[] block = new int[1];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, block[0]++ * 8, frames * 2));
+            SoundSource b = engine.createSound("b.wav");
+            SoundSource a = engine.createSound("a.wav").play().chain(b, 1);
+            engine.update();
+            engine.update();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f,
+                    0.5f, 0.5f, 0.4375f, 0.4375f, 0.375f, 0.375f, 0.3125f, 0.3125f,
+                    0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f, 0.25f}, result);
+            Assertions.assertFalse(a.isPlaying());
+            Assertions.assertTrue(b.isPlaying());
+        }
+
+        @Test
+        void gainRestoredAfterCrossfade() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 4, (short) 16384, 4000);
+            MixerAudioEngine engine = new MixerAudioEngine(4000, 4);
+            engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            SoundSource a = engine.createSound("a.wav").play().chain(engine.createSound("a.wav"), 1);
+            engine.update();
+            engine.update();
+            a.stop().play().stop();
+            a.play();
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f}, result);
+        }
+    }
+
+    @Nested
+    class PlaylistPlay {
+
+        @Test
+        void gapless() throws IOException, InterruptedException {
+            WaveFiles.constant(folder.resolve("a.wav"), 6, (short) 16384);
+            WaveFiles.constant(folder.resolve("b.wav"), 6, (short) 8192);
+            MixerAudioEngine engine = givenAnEngine(4);
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            Playlist playlist = engine.createPlaylist()
+                    .addMusic(Music.withName("a.wav", "a"))
+                    .addMusic(Music.withName("b.wav", "b"));
+            playlist.playNext();
+            engine.update();
+            for (int i = 0; i < 200 && !playlist.isNextPrepared(); i++) {
+                Thread.sleep(5);
+            }
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.5f, 0.5f, 0.25f, 0.25f, 0.25f, 0.25f}, result);
+        }
+
+        @Test
+        void crossfade() throws IOException, InterruptedException {
+            WaveFiles.constant(folder.resolve("a.wav"), 8, (short) 16384, 4000);
+            WaveFiles.constant(folder.resolve("b.wav"), 8, (short) 8192, 4000);
+            MixerAudioEngine engine = new MixerAudioEngine(4000, 4);
+            engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+            float[] result = new float[8];
+            engine.setOutput((buffer, frames) -> System.arraycopy(buffer, 0, result, 0, frames * 2));
+            Playlist playlist = engine.createPlaylist()
+                    .setCrossfade(1)
+                    .addMusic(Music.withName("a.wav", "a"))
+                    .addMusic(Music.withName("b.wav", "b"));
+            playlist.playNext();
+            engine.update();
+            for (int i = 0; i < 200 && !playlist.isNextPrepared(); i++) {
+                Thread.sleep(5);
+            }
+            engine.update();
+            Assertions.assertArrayEquals(new float[]{0.5f, 0.5f, 0.4375f, 0.4375f, 0.375f, 0.375f, 0.3125f, 0.3125f}, result);
+        }
+    }
+
+    @Nested
+    class AudioThread {
+
+        @Test
+        void commandsExecutedByAudioThread() throws IOException, InterruptedException {
+            WaveFiles.constant(folder.resolve("a.wav"), 480000, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(64);
+            float[] result = new float[2];
+            Thread[] writer = new Thread[1];
+            engine.setOutput((buffer, frames) -> {
+                writer[0] = Thread.currentThread();
+                System.arraycopy(buffer, 0, result, 0, 2);
+            });
+            engine.setAudioThread(true);
+            SoundSource source = engine.createSound("a.wav").setGain(0.5f).play();
+            for (int i = 0; i < 200 && result[0] == 0; i++) {
+                Thread.sleep(5);
+            }
+            Assertions.assertTrue(source.isPlaying());
+            Assertions.assertEquals(0.25f, result[0]);
+            Assertions.assertNotSame(Thread.currentThread(), writer[0]);
+            engine.close();
+            Assertions.assertFalse(source.isPlaying());
+        }
+
+        @Test
+        void pendingCommandsExecutedWhenStopped() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4).setAudioThread(true);
+            SoundSource source = engine.createSound("a.wav").loop().play();
+            engine.setAudioThread(false);
+            Assertions.assertTrue(source.isPlaying());
+        }
+    }
+
+    @Nested
+    class Close {
+
+        @Test
+        void stopAll() throws IOException {
+            WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+            MixerAudioEngine engine = givenAnEngine(4);
+            SoundSource source = engine.createSound("a.wav").play();
+            engine.close();
+            Assertions.assertFalse(source.isPlaying());
+        }
+    }
+}
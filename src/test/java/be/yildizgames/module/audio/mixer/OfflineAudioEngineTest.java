@@ -0,0 +1,203 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.common.file.ResourcePath;
+import be.yildizgames.module.audio.BaseAudioEngine;
+import be.yildizgames.module.audio.Music;
+import be.yildizgames.module.audio.dummy.DummyAudioEngineProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class OfflineAudioEngineTest {
+
+    @TempDir
+    Path folder;
+
+    private OfflineAudioEngine givenAnEngine() throws IOException {
+        WaveFiles.constant(folder.resolve("a.wav"), 10, (short) 16384);
+        OfflineAudioEngine engine = new OfflineAudioEngine(MixerAudioEngine.DEFAULT_SAMPLE_RATE, 4);
+        engine.addResourcePath(ResourcePath.directory("test", folder.toString()));
+        return engine;
+    }
+
+    @Nested
+    class Render {
+
+        @Test
+        void toFile() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            engine.createSound("a.wav").play();
+            engine.render(folder.resolve("out.wav"), 8);
+            SampleBuffer result = WaveDecoder.decode(folder.resolve("out.wav"));
+            Assertions.assertEquals(2, result.channels);
+            Assertions.assertEquals(MixerAudioEngine.DEFAULT_SAMPLE_RATE, result.sampleRate);
+            Assertions.assertEquals(8, result.frames);
+            Assertions.assertTrue(result.samples[0] > 0);
+            Assertions.assertEquals(8, engine.getRenderedFrames());
+        }
+
+        @Test
+        void sameAsRealtime() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            float[] expected = new float[24];
+            MixerAudioEngine realtime = new MixerAudioEngine(MixerAudioEngine.DEFAULT_SAMPLE_RATE, 4)
+                    .addResourcePath(ResourcePath.directory("test", folder.toString()));
+            int[] position = new int[1];
+            realtime.setOutput((buffer, frames) -> {
+                System.arraycopy(buffer, 0, expected, position[0], frames * 2);
+                position[0] += frames * 2;
+            });
+            realtime.createSound("a.wav").play();
+            engine.createSound("a.wav").play();
+            for (int i = 0; i < 3; i++) {
+                realtime.update();
+            }
+            engine.render(folder.resolve("out.wav"), 12);
+            Assertions.assertArrayEquals(expected, WaveDecoder.decode(folder.resolve("out.wav")).samples);
+        }
+
+        @Test
+        void toNonSeekableChannel() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            engine.render(Channels.newChannel(out), 12);
+            Assertions.assertEquals(WaveWriter.HEADER_SIZE + 12 * 8, out.size());
+            Files.write(folder.resolve("out.wav"), out.toByteArray());
+            Assertions.assertEquals(12, WaveDecoder.decode(folder.resolve("out.wav")).frames);
+        }
+
+        @Test
+        void consecutiveRendersContiguous() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            engine.createSound("a.wav").play();
+            engine.render(folder.resolve("first.wav"), 8);
+            engine.render(folder.resolve("second.wav"), 4);
+            float[] second = WaveDecoder.decode(folder.resolve("second.wav")).samples;
+            Assertions.assertTrue(second[2] > 0);
+            Assertions.assertEquals(0f, second[2 * 2]);
+            Assertions.assertEquals(12, engine.getRenderedFrames());
+        }
+
+        @Test
+        void playlistRepeatable() throws IOException {
+            WaveFiles.constant(folder.resolve("m1.wav"), 4, (short) 16384);
+            WaveFiles.constant(folder.resolve("m2.wav"), 480000, (short) 8192);
+            byte[] first = renderPlaylist();
+            byte[] second = renderPlaylist();
+            Assertions.assertArrayEquals(first, second);
+            Files.write(folder.resolve("out.wav"), first);
+            float[] samples = WaveDecoder.decode(folder.resolve("out.wav")).samples;
+            Assertions.assertEquals(0.5f, samples[3 * 2]);
+            Assertions.assertEquals(0.25f, samples[4 * 2]);
+            Assertions.assertEquals(0.25f, samples[15 * 2]);
+        }
+
+        private byte[] renderPlaylist() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            engine.createPlaylist()
+                    .addMusic(Music.withName("m1.wav", "m1"))
+                    .addMusic(Music.withName("m2.wav", "m2"))
+                    .playNext();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            engine.render(Channels.newChannel(out), 16);
+            engine.close();
+            return out.toByteArray();
+        }
+
+        @Test
+        void endNotified() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            boolean[] ended = new boolean[1];
+            engine.createSound("a.wav").addEndPlayListener(() -> ended[0] = true).play();
+            engine.render(8);
+            Assertions.assertFalse(ended[0]);
+            engine.render(4);
+            Assertions.assertTrue(ended[0]);
+        }
+
+        @Test
+        void withAudioThread() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            engine.setAudioThread(true);
+            try {
+                Assertions.assertThrows(IllegalStateException.class, () -> engine.render(4));
+            } finally {
+                engine.setAudioThread(false);
+            }
+        }
+
+        @Test
+        void withNegative() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.render(-1));
+        }
+
+        @Test
+        void withPartialBlock() throws IOException {
+            OfflineAudioEngine engine = givenAnEngine();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.render(10));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.render(folder.resolve("out.wav"), 10));
+            Assertions.assertFalse(Files.exists(folder.resolve("out.wav")));
+            Assertions.assertEquals(0, engine.getRenderedFrames());
+        }
+    }
+
+    @Nested
+    class Provider {
+
+        @Test
+        void get() {
+            Assertions.assertNotNull(new OfflineAudioEngineProvider().getAudioEngine());
+        }
+
+        @Test
+        void byType() {
+            BaseAudioEngine engine = BaseAudioEngine.getEngine(OfflineAudioEngineProvider.class);
+            Assertions.assertInstanceOf(OfflineAudioEngine.class, engine);
+        }
+
+        @Test
+        void neverDefault() {
+            Assertions.assertFalse(BaseAudioEngine.getEngine() instanceof OfflineAudioEngine);
+        }
+
+        @Test
+        void notRegistered() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> BaseAudioEngine.getEngine(DummyAudioEngineProvider.class));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class ResamplingReaderTest {
+
+    private static FrameReader givenARamp(int frames) {
+        float[] samples = new float[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = i;
+        }
+        SampleCache cache = new SampleCache(0, p -> new SampleBuffer(samples, 1, 24000));
+        BufferReader reader = new BufferReader(cache, cache.get(Path.of("ramp.wav")));
+        reader.start();
+        return reader;
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void invalidRate() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new ResamplingReader(givenARamp(4), 0, 48000));
+        }
+    }
+
+    @Nested
+    class Read {
+
+        @Test
+        void upsampled() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(10), 24000, 48000);
+            Assertions.assertEquals(20, reader.remaining());
+            float[] result = new float[30];
+            Assertions.assertEquals(20, reader.read(result, 30));
+            for (int i = 2; i < 17; i++) {
+                Assertions.assertEquals(i * 0.5f, result[i], 1e-5f);
+            }
+            Assertions.assertEquals(0, reader.remaining());
+        }
+
+        @Test
+        void downsampled() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(3000), 48000, 24000);
+            float[] result = new float[1500];
+            Assertions.assertEquals(1500, reader.read(result, 1500));
+            for (int i = 1; i < 1499; i++) {
+                Assertions.assertEquals(i * 2f, result[i], 1e-3f);
+            }
+        }
+
+        @Test
+        void inSeveralCalls() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(3000), 24000, 44100);
+            ResamplingReader expected = new ResamplingReader(givenARamp(3000), 24000, 44100);
+            float[] all = new float[6000];
+            int total = expected.read(all, 6000);
+            float[] part = new float[7];
+            int done = 0;
+            int read;
+            while ((read = reader.read(part, 7)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    Assertions.assertEquals(all[done + i], part[i]);
+                }
+                done += read;
+            }
+            Assertions.assertEquals(total, done);
+        }
+
+        @Test
+        void skipped() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(3000), 24000, 48000);
+            ResamplingReader expected = new ResamplingReader(givenARamp(3000), 24000, 48000);
+            float[] result = new float[10];
+            float[] all = new float[2010];
+            expected.read(all, 2010);
+            Assertions.assertEquals(2000, reader.skip(2000));
+            reader.read(result, 10);
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(all[2000 + i], result[i]);
+            }
+        }
+
+        @Test
+        void rewind() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(10), 24000, 48000);
+            float[] first = new float[20];
+            float[] second = new float[20];
+            reader.read(first, 20);
+            reader.rewind();
+            Assertions.assertEquals(20, reader.read(second, 20));
+            Assertions.assertArrayEquals(first, second);
+        }
+    }
+
+    @Nested
+    class Pitch {
+
+        @Test
+        void doubled() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(20), 1, 1);
+            reader.setPitch(2);
+            Assertions.assertEquals(10, reader.remaining());
+            float[] result = new float[20];
+            Assertions.assertEquals(10, reader.read(result, 20));
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(i * 2f, result[i], 1e-5f);
+            }
+        }
+
+        @Test
+        void higherThanMargin() {
+            ResamplingReader reader = new ResamplingReader(givenARamp(3000), 1, 1);
+            reader.setPitch(20);
+            float[] result = new float[150];
+            Assertions.assertEquals(150, reader.read(result, 150));
+            for (int i = 0; i < 149; i++) {
+                Assertions.assertEquals(i * 20f, result[i], 1e-3f);
+            }
+        }
+    }
+
+    @Nested
+    class Interpolate {
+
+        private float[] givenRead(Interpolation interpolation) {
+            ResamplingReader reader = new ResamplingReader(givenARamp(3000), 24000, 44100);
+            reader.setInterpolation(interpolation);
+            float[] result = new float[5000];
+            reader.read(result, 5000);
+            return result;
+        }
+
+        @Test
+        void nearest() {
+            float[] result = givenRead(Interpolation.NEAREST);
+            for (int i = 0; i < 5000; i++) {
+                Assertions.assertEquals(Math.round(i * 24000 / 44100.0), result[i], 1e-3f);
+            }
+        }
+
+        @Test
+        void linear() {
+            float[] result = givenRead(Interpolation.LINEAR);
+            for (int i = 0; i < 5000; i++) {
+                Assertions.assertEquals(i * 24000 / 44100.0, result[i], 1e-2f);
+            }
+        }
+
+        @Test
+        void sinc() {
+            float[] result = givenRead(Interpolation.SINC);
+            for (int i = 100; i < 4900; i++) {
+                Assertions.assertEquals(i * 24000 / 44100.0, result[i], 0.05 * i * 24000 / 44100.0);
+            }
+        }
+
+        @Test
+        void sincBands() {
+            Assertions.assertEquals(0, ResamplingReader.sincBand(0.5));
+            Assertions.assertEquals(0, ResamplingReader.sincBand(1));
+            Assertions.assertEquals(1, ResamplingReader.sincBand(1.2));
+            Assertions.assertEquals(2, ResamplingReader.sincBand(2));
+            Assertions.assertEquals(4, ResamplingReader.sincBand(4));
+            Assertions.assertEquals(4, ResamplingReader.sincBand(20));
+        }
+
+        @Test
+        void sincPitchedNotAliased() {
+            float[] samples = new float[4000];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = i % 2 == 0 ? 1 : -1;
+            }
+            SampleCache cache = new SampleCache(0, p -> new SampleBuffer(samples, 1, 24000));
+            BufferReader source = new BufferReader(cache, cache.get(Path.of("nyquist.wav")));
+            source.start();
+            ResamplingReader reader = new ResamplingReader(source, 1, 1);
+            reader.setInterpolation(Interpolation.SINC);
+            reader.setPitch(2.1f);
+            float[] result = new float[1000];
+            reader.read(result, 1000);
+            for (int i = 100; i < 900; i++) {
+                Assertions.assertEquals(0f, result[i], 0.1f);
+            }
+        }
+    }
+
+    @Nested
+    class Hermite {
+
+        @Test
+        void boundaries() {
+            Assertions.assertEquals(2f, ResamplingReader.hermite(1, 2, 3, 4, 0));
+            Assertions.assertEquals(3f, ResamplingReader.hermite(1, 2, 3, 4, 1));
+            Assertions.assertEquals(2.5f, ResamplingReader.hermite(1, 2, 3, 4, 0.5f));
+        }
+    }
+}
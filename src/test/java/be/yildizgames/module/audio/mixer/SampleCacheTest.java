@@ -0,0 +1,203 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SampleCacheTest {
+
+    /**
+     * Every decoded buffer uses 16 bytes.
+     */
+    private static SampleBuffer decode(Path p) {
+        return new SampleBuffer(new float[4], 1, 48000);
+    }
+
+    private static SampleCache givenACache(int capacity) {
+        return new SampleCache(capacity, SampleCacheTest::decode);
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void negativeCapacity() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> givenACache(-1));
+        }
+
+        @Test
+        void nullDecoder() {
+            Assertions.assertThrows(NullPointerException.class, () -> new SampleCache(1, null));
+        }
+    }
+
+    @Nested
+    class Get {
+
+        @Test
+        void hit() {
+            AtomicInteger decoded = new AtomicInteger();
+            SampleCache cache = new SampleCache(2, p -> {decoded.incrementAndGet(); return decode(p);});
+            CachedSample first = cache.get(Paths.get("a.wav"));
+            CachedSample second = cache.get(Paths.get("a.wav"));
+            Assertions.assertSame(first, second);
+            Assertions.assertEquals(1, decoded.get());
+            Assertions.assertEquals(1, cache.getHits());
+            Assertions.assertEquals(1, cache.getMisses());
+            Assertions.assertEquals(16, cache.getResidentBytes());
+        }
+
+        @Test
+        void sameResolvedFile() {
+            SampleCache cache = givenACache(2);
+            Assertions.assertSame(cache.get(Paths.get("a.wav")), cache.get(Paths.get("b/../a.wav")));
+        }
+
+        @Test
+        void leastRecentlyUsedEvicted() throws InterruptedException {
+            SampleCache cache = givenACache(2);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            CachedSample b = cache.get(Paths.get("b.wav"));
+            Thread.sleep(1);
+            cache.get(Paths.get("a.wav"));
+            cache.get(Paths.get("c.wav"));
+            Assertions.assertEquals(2, cache.size());
+            Assertions.assertSame(a, cache.get(Paths.get("a.wav")));
+            Assertions.assertNull(b.getBuffer());
+            Assertions.assertNotSame(b, cache.get(Paths.get("b.wav")));
+        }
+
+        @Test
+        void playedIsRecentlyUsed() throws InterruptedException {
+            SampleCache cache = givenACache(2);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            CachedSample b = cache.get(Paths.get("b.wav"));
+            Thread.sleep(1);
+            a.acquire();
+            a.release();
+            cache.get(Paths.get("c.wav"));
+            Assertions.assertNotNull(a.getBuffer());
+            Assertions.assertNull(b.getBuffer());
+        }
+
+        @Test
+        void priorityChangedWhenCached() {
+            SampleCache cache = givenACache(2);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            CachedSample b = cache.get(Paths.get("b.wav"));
+            cache.setPriority(Paths.get("a.wav"), 5);
+            cache.get(Paths.get("c.wav"));
+            Assertions.assertNotNull(a.getBuffer());
+            Assertions.assertNull(b.getBuffer());
+        }
+
+        @Test
+        void disabled() {
+            SampleCache cache = givenACache(0);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            Assertions.assertNotSame(a, cache.get(Paths.get("a.wav")));
+            Assertions.assertEquals(0, cache.size());
+            Assertions.assertNotNull(a.getBuffer());
+        }
+    }
+
+    @Nested
+    class Budget {
+
+        @Test
+        void negative() {
+            SampleCache cache = givenACache(2);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> cache.setBudget(-1));
+        }
+
+        @Test
+        void evictWhenExceeded() {
+            SampleCache cache = givenACache(10);
+            cache.setBudget(32);
+            List<Path> evicted = new ArrayList<>();
+            cache.addEvictionListener((file, bytes) -> evicted.add(file));
+            cache.get(Paths.get("a.wav"));
+            cache.get(Paths.get("b.wav"));
+            cache.get(Paths.get("c.wav"));
+            Assertions.assertEquals(2, cache.size());
+            Assertions.assertEquals(32, cache.getResidentBytes());
+            Assertions.assertEquals(List.of(Paths.get("a.wav").toAbsolutePath()), evicted);
+            Assertions.assertEquals(1, cache.getEvictions());
+        }
+
+        @Test
+        void lowestPriorityFirst() {
+            SampleCache cache = givenACache(10);
+            cache.setBudget(32);
+            cache.setPriority(Paths.get("a.wav"), 5);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            CachedSample b = cache.get(Paths.get("b.wav"));
+            cache.get(Paths.get("c.wav"));
+            Assertions.assertNotNull(a.getBuffer());
+            Assertions.assertNull(b.getBuffer());
+        }
+
+        @Test
+        void playingNotEvicted() {
+            SampleCache cache = givenACache(10);
+            cache.setBudget(16);
+            CachedSample a = cache.get(Paths.get("a.wav"));
+            a.acquire();
+            CachedSample b = cache.get(Paths.get("b.wav"));
+            Assertions.assertNotNull(a.getBuffer());
+            Assertions.assertNotNull(b.getBuffer());
+            Assertions.assertEquals(32, cache.getResidentBytes());
+            a.release();
+            cache.enforceLimits();
+            Assertions.assertNull(a.getBuffer());
+            Assertions.assertEquals(16, cache.getResidentBytes());
+        }
+    }
+
+    @Nested
+    class SetCapacity {
+
+        @Test
+        void shrink() {
+            SampleCache cache = givenACache(3);
+            cache.get(Paths.get("a.wav"));
+            cache.get(Paths.get("b.wav"));
+            cache.get(Paths.get("c.wav"));
+            cache.setCapacity(1);
+            Assertions.assertEquals(1, cache.size());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SincResamplerTest {
+
+    private static SampleBuffer givenASine(int frames, int rate, double frequency) {
+        float[] samples = new float[frames];
+        for (int i = 0; i < frames; i++) {
+            samples[i] = (float) Math.sin(2 * Math.PI * frequency * i / rate);
+        }
+        return new SampleBuffer(samples, 1, rate);
+    }
+
+    @Nested
+    class ForRates {
+
+        @Test
+        void shared() {
+            Assertions.assertSame(SincResampler.forRates(44100, 48000), SincResampler.forRates(44100, 48000));
+        }
+
+        @Test
+        void exactPhases() {
+            Assertions.assertEquals(160, SincResampler.forRates(44100, 48000).getPhases());
+        }
+
+        @Test
+        void quantizedPhases() {
+            Assertions.assertEquals(1024, SincResampler.forRates(48000, 44101).getPhases());
+        }
+
+        @Test
+        void invalidRate() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SincResampler.forRates(0, 48000));
+        }
+    }
+
+    @Nested
+    class Convert {
+
+        @Test
+        void length() {
+            SampleBuffer result = SincResampler.forRates(22050, 48000).convert(new SampleBuffer(new float[882], 2, 22050), 48000);
+            Assertions.assertEquals(960, result.frames);
+            Assertions.assertEquals(2, result.channels);
+            Assertions.assertEquals(48000, result.sampleRate);
+        }
+
+        @Test
+        void constantKept() {
+            float[] samples = new float[1000];
+            java.util.Arrays.fill(samples, 0.5f);
+            SampleBuffer result = SincResampler.forRates(44100, 48000).convert(new SampleBuffer(samples, 1, 44100), 48000);
+            for (int i = 100; i < result.frames - 100; i++) {
+                Assertions.assertEquals(0.5f, result.samples[i], 1e-4f);
+            }
+        }
+
+        @Test
+        void sineUpsampled() {
+            SampleBuffer result = SincResampler.forRates(44100, 48000).convert(givenASine(4410, 44100, 1000), 48000);
+            SampleBuffer expected = givenASine(result.frames, 48000, 1000);
+            for (int i = 100; i < result.frames - 100; i++) {
+                Assertions.assertEquals(expected.samples[i], result.samples[i], 1e-3f);
+            }
+        }
+
+        @Test
+        void sineDownsampled() {
+            SampleBuffer result = SincResampler.forRates(48000, 22050).convert(givenASine(4800, 48000, 1000), 22050);
+            SampleBuffer expected = givenASine(result.frames, 22050, 1000);
+            for (int i = 100; i < result.frames - 100; i++) {
+                Assertions.assertEquals(expected.samples[i], result.samples[i], 1e-3f);
+            }
+        }
+
+        @Test
+        void aliasingRemoved() {
+            SampleBuffer result = SincResampler.forRates(48000, 22050).convert(givenASine(4800, 48000, 20000), 22050);
+            for (int i = 100; i < result.frames - 100; i++) {
+                Assertions.assertEquals(0f, result.samples[i], 1e-3f);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.common.geometry.Point3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class SpatialGridTest {
+
+    private static MixerSoundSource givenASource(float x, float y, float z) {
+        MixerSoundSource source = new MixerSoundSource(new Mixer(48000, 4), new SilentReader(), "silent");
+        source.setPosition(Point3D.valueOf(x, y, z));
+        return source;
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void invalidCellSize() {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new SpatialGrid(0));
+        }
+    }
+
+    @Nested
+    class Mark {
+
+        @Test
+        void onlyNearCells() {
+            SpatialGrid grid = new SpatialGrid(10);
+            MixerSoundSource near = givenASource(5, 0, -5);
+            MixerSoundSource neighbour = givenASource(-8, 0, 0);
+            MixerSoundSource far = givenASource(50, 0, 0);
+            grid.insert(near);
+            grid.insert(neighbour);
+            grid.insert(far);
+            grid.mark(0, 0, 0, 10, 1);
+            Assertions.assertEquals(1, near.nearStamp);
+            Assertions.assertEquals(1, neighbour.nearStamp);
+            Assertions.assertEquals(0, far.nearStamp);
+            Assertions.assertEquals(3, grid.getCellCount());
+        }
+
+        @Test
+        void afterMove() {
+            SpatialGrid grid = new SpatialGrid(10);
+            MixerSoundSource source = givenASource(50, 0, 0);
+            grid.insert(source);
+            source.setPosition(Point3D.valueOf(1, 1, 1));
+            grid.move(source);
+            grid.mark(0, 0, 0, 10, 1);
+            Assertions.assertEquals(1, source.nearStamp);
+            Assertions.assertEquals(1, grid.getCellCount());
+        }
+
+        @Test
+        void hugeRange() {
+            SpatialGrid grid = new SpatialGrid(0.001f);
+            MixerSoundSource source = givenASource(1, 1, 1);
+            grid.insert(source);
+            grid.mark(0, 0, 0, Float.MAX_VALUE, 1);
+            Assertions.assertEquals(1, source.nearStamp);
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        @Test
+        void emptyCellReleased() {
+            SpatialGrid grid = new SpatialGrid(10);
+            MixerSoundSource first = givenASource(1, 1, 1);
+            MixerSoundSource second = givenASource(2, 2, 2);
+            grid.insert(first);
+            grid.insert(second);
+            grid.remove(first);
+            Assertions.assertEquals(-1, first.gridCell);
+            Assertions.assertEquals(1, grid.getCellCount());
+            grid.remove(second);
+            Assertions.assertEquals(0, grid.getCellCount());
+            grid.mark(0, 0, 0, 10, 1);
+            Assertions.assertEquals(0, second.nearStamp);
+        }
+
+        @Test
+        void manyCells() {
+            SpatialGrid grid = new SpatialGrid(1);
+            MixerSoundSource[] sources = new MixerSoundSource[500];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = givenASource(i * 3, -i, i % 7);
+                grid.insert(sources[i]);
+            }
+            for (int i = 0; i < sources.length; i += 2) {
+                grid.remove(sources[i]);
+            }
+            Assertions.assertEquals(250, grid.getCellCount());
+            for (int i = 1; i < sources.length; i += 2) {
+                grid.mark(i * 3, -i, i % 7, 0.5f, i);
+                Assertions.assertEquals(i, sources[i].nearStamp);
+            }
+        }
+    }
+
+    private static final class SilentReader implements FrameReader {
+
+        @Override
+        public void start() {
+            //Nothing to prepare.
+        }
+
+        @Override
+        public void stop() {
+            //Nothing to release.
+        }
+
+        @Override
+        public int read(float[] target, int frames) {
+            return frames;
+        }
+
+        @Override
+        public int skip(int frames) {
+            return frames;
+        }
+
+        @Override
+        public long remaining() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void rewind() {
+            //No position.
+        }
+
+        @Override
+        public void setLooping(boolean looping) {
+            //Always looping.
+        }
+
+        @Override
+        public int channels() {
+            return 1;
+        }
+
+        @Override
+        public void close() {
+            //Nothing to release.
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.SoundCreationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class StreamReaderTest {
+
+    @TempDir
+    Path folder;
+
+    private Path givenAFile() throws IOException {
+        return WaveFiles.pcm16(folder.resolve("a.wav"), 1, 48000,
+                (short) 0, (short) 3277, (short) 6554, (short) 9830, (short) 13107, (short) 16384, (short) 19661);
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void notWave() throws IOException {
+            Path file = Files.write(folder.resolve("a.wav"), new byte[]{1, 2, 3});
+            Assertions.assertThrows(SoundCreationException.class, () -> new StreamReader(file, new StreamFeeder(), 2, 2));
+        }
+    }
+
+    @Nested
+    class Read {
+
+        @Test
+        void acrossChunks() throws IOException {
+            StreamFeeder feeder = new StreamFeeder();
+            StreamReader reader = new StreamReader(givenAFile(), feeder, 2, 2);
+            reader.start();
+            reader.fillAll();
+            float[] target = new float[3];
+            Assertions.assertEquals(3, reader.read(target, 3));
+            Assertions.assertEquals(0.2f, target[2], 0.001f);
+            reader.fillAll();
+            Assertions.assertEquals(3, reader.read(target, 3));
+            Assertions.assertEquals(0.5f, target[2], 0.001f);
+            reader.fillAll();
+            Assertions.assertEquals(1, reader.read(target, 3));
+            Assertions.assertEquals(0.6f, target[0], 0.001f);
+            Assertions.assertEquals(0, reader.read(target, 3));
+            Assertions.assertEquals(0, feeder.getUnderruns());
+        }
+
+        @Test
+        void underrun() throws IOException {
+            StreamFeeder feeder = new StreamFeeder();
+            StreamReader reader = new StreamReader(givenAFile(), feeder, 2, 2);
+            reader.start();
+            float[] target = {1, 1, 1};
+            Assertions.assertEquals(3, reader.read(target, 3));
+            Assertions.assertEquals(0f, target[2]);
+            Assertions.assertEquals(1, feeder.getUnderruns());
+        }
+
+        @Test
+        void loop() throws IOException {
+            StreamReader reader = new StreamReader(givenAFile(), new StreamFeeder(), 4, 2);
+            reader.setLooping(true);
+            reader.start();
+            float[] target = new float[8];
+            reader.fillAll();
+            reader.read(target, 4);
+            reader.fillAll();
+            reader.read(target, 4);
+            reader.fillAll();
+            Assertions.assertEquals(8, reader.read(target, 8));
+            Assertions.assertEquals(0.1f, target[0], 0.001f);
+            Assertions.assertEquals(0.6f, target[5], 0.001f);
+            Assertions.assertEquals(0f, target[6], 0.001f);
+        }
+
+        @Test
+        void rewind() throws IOException {
+            StreamReader reader = new StreamReader(givenAFile(), new StreamFeeder(), 2, 2);
+            reader.start();
+            reader.fillAll();
+            float[] target = new float[3];
+            reader.read(target, 3);
+            reader.rewind();
+            reader.start();
+            Assertions.assertEquals(2, reader.read(target, 2));
+            Assertions.assertEquals(0f, target[0], 0.001f);
+        }
+
+        @Test
+        void prepared() throws IOException {
+            Path file = givenAFile();
+            StreamFeeder feeder = new StreamFeeder();
+            StreamReader reader = new StreamReader(file, feeder, 2, 2);
+            reader.prepare();
+            //Nothing can be read from the file anymore, only the prepared chunk is available.
+            Files.write(file, new byte[0]);
+            reader.rewind();
+            reader.start();
+            float[] target = new float[2];
+            Assertions.assertEquals(2, reader.read(target, 2));
+            Assertions.assertEquals(0.1f, target[1], 0.001f);
+            Assertions.assertEquals(0, feeder.getUnderruns());
+        }
+    }
+
+    @Nested
+    class Feeder {
+
+        @Test
+        void dedicatedThread() throws IOException, InterruptedException {
+            StreamFeeder feeder = new StreamFeeder();
+            feeder.start();
+            try {
+                StreamReader reader = new StreamReader(givenAFile(), feeder, 2, 4);
+                reader.start();
+                float[] target = new float[7];
+                int read = 0;
+                for (int i = 0; i < 100 && read < 7; i++) {
+                    Thread.sleep(5);
+                    read += reader.read(target, 7 - read);
+                }
+                Assertions.assertTrue(feeder.isThreaded());
+            } finally {
+                feeder.stop();
+            }
+            Assertions.assertFalse(feeder.isThreaded());
+        }
+    }
+}
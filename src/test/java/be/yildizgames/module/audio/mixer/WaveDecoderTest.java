@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import be.yildizgames.module.audio.SoundCreationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Grégory Van den Borre
+ */
+class WaveDecoderTest {
+
+    @TempDir
+    Path folder;
+
+    @Nested
+    class Decode {
+
+        @Test
+        void pcm16() throws IOException {
+            Path file = WaveFiles.pcm16(folder.resolve("a.wav"), 2, 22050, (short) 16384, (short) -32768, (short) 0, (short) 8192);
+            SampleBuffer buffer = WaveDecoder.decode(file);
+            Assertions.assertEquals(2, buffer.channels);
+            Assertions.assertEquals(22050, buffer.sampleRate);
+            Assertions.assertEquals(2, buffer.frames);
+            Assertions.assertArrayEquals(new float[]{0.5f, -1f, 0f, 0.25f}, buffer.samples);
+        }
+
+        @Test
+        void float32() throws IOException {
+            Path file = WaveFiles.float32(folder.resolve("a.wav"), 1, 48000, 0.1f, -0.2f, 0.3f);
+            SampleBuffer buffer = WaveDecoder.decode(file);
+            Assertions.assertEquals(1, buffer.channels);
+            Assertions.assertEquals(3, buffer.frames);
+            Assertions.assertArrayEquals(new float[]{0.1f, -0.2f, 0.3f}, buffer.samples);
+        }
+
+        @Test
+        void notWave() throws IOException {
+            Path file = Files.write(folder.resolve("a.wav"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            Assertions.assertThrows(SoundCreationException.class, () -> WaveDecoder.decode(file));
+        }
+
+        @Test
+        void unsupportedEncoding() throws IOException {
+            Path file = WaveFiles.write(folder.resolve("a.wav"), 2, 1, 48000, 4, new byte[]{1, 2});
+            Assertions.assertThrows(SoundCreationException.class, () -> WaveDecoder.decode(file));
+        }
+
+        @Test
+        void tooLarge() throws IOException {
+            long length = 3L * 1024 * 1024 * 1024;
+            Path file = WaveFiles.write(folder.resolve("a.wav"), 1, 1, 48000, 32, new byte[0]);
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(40);
+                raf.writeInt(Integer.reverseBytes((int) length));
+                raf.setLength(44 + length);
+            }
+            Assertions.assertThrows(SoundCreationException.class, () -> WaveDecoder.decode(file));
+        }
+
+        @Test
+        void notExisting() {
+            Assertions.assertThrows(SoundCreationException.class, () -> WaveDecoder.decode(folder.resolve("none.wav")));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Yildiz-Engine project, licenced under the MIT License  (MIT)
+ *
+ *  Copyright (c) 2019 Grégory Van den Borre
+ *
+ *  More infos available: https://engine.yildiz-games.be
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without
+ *  limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ *  of the Software, and to permit persons to whom the Software is furnished to do so,
+ *  subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial
+ *  portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ *  WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ *  OR COPYRIGHT  HOLDERS BE LIABLE FOR ANY CLAIM,
+ *  DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  SOFTWARE.
+ *
+ */
+
+package be.yildizgames.module.audio.mixer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Write small wave files to be used by the tests.
+ *
+ * @author Grégory Van den Borre
+ */
+final class WaveFiles {
+
+    private WaveFiles() {
+        super();
+    }
+
+    /**
+     * Write a 16 bits PCM wave file.
+     *
+     * @param file       File to write.
+     * @param channels   Number of channels.
+     * @param sampleRate Frames per second.
+     * @param samples    Interleaved samples.
+     * @return The written file.
+     */
+    static Path pcm16(Path file, int channels, int sampleRate, short... samples) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (short s : samples) {
+            data.putShort(s);
+        }
+        return write(file, 1, channels, sampleRate, 16, data.array());
+    }
+
+    /**
+     * Write a 32 bits float wave file.
+     *
+     * @param file       File to write.
+     * @param channels   Number of channels.
+     * @param sampleRate Frames per second.
+     * @param samples    Interleaved samples.
+     * @return The written file.
+     */
+    static Path float32(Path file, int channels, int sampleRate, float... samples) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(samples.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float s : samples) {
+            data.putFloat(s);
+        }
+        return write(file, 3, channels, sampleRate, 32, data.array());
+    }
+
+    /**
+     * Write a mono 16 bits wave file with a constant value.
+     *
+     * @param file   File to write.
+     * @param frames Number of frames.
+     * @param value  Value of every sample.
+     * @return The written file.
+     */
+    static Path constant(Path file, int frames, short value) throws IOException {
+        return constant(file, frames, value, MixerAudioEngine.DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Write a mono 16 bits wave file with a constant value.
+     *
+     * @param file       File to write.
+     * @param frames     Number of frames.
+     * @param value      Value of every sample.
+     * @param sampleRate Frames per second.
+     * @return The written file.
+     */
+    static Path constant(Path file, int frames, short value, int sampleRate) throws IOException {
+        short[] samples = new short[frames];
+        java.util.Arrays.fill(samples, value);
+        return pcm16(file, 1, sampleRate, samples);
+    }
+
+    static Path write(Path file, int tag, int channels, int sampleRate, int bits, byte[] data) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(44 + data.length).order(ByteOrder.LITTLE_ENDIAN);
+        b.put("RIFF".getBytes()).putInt(36 + data.length).put("WAVE".getBytes());
+        b.put("fmt ".getBytes()).putInt(16).putShort((short) tag).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * channels * bits / 8).putShort((short) (channels * bits / 8)).putShort((short) bits);
+        b.put("data".getBytes()).putInt(data.length).put(data);
+        return Files.write(file, b.array());
+    }
+}